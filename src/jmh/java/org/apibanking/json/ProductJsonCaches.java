@@ -0,0 +1,28 @@
+package org.apibanking.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.cache.runtime.caffeine.CaffeineCacheImpl;
+import io.quarkus.cache.runtime.caffeine.CaffeineCacheInfo;
+
+/**
+ * Builds a {@link ProductJsonCache} outside of CDI for the benchmarks, backed by
+ * the same Caffeine cache Quarkus would create for it.
+ */
+public final class ProductJsonCaches {
+
+	private ProductJsonCaches() {
+	}
+
+	public static ProductJsonCache create(ObjectMapper objectMapper, long maximumSize) {
+		CaffeineCacheInfo cacheInfo = new CaffeineCacheInfo();
+		cacheInfo.name = ProductJsonCache.PRODUCT_JSON_CACHE;
+		cacheInfo.maximumSize = maximumSize;
+		ProductJsonCache productJsonCache = new ProductJsonCache();
+		productJsonCache.enabled = true;
+		productJsonCache.objectMapper = objectMapper;
+		productJsonCache.cache = new CaffeineCacheImpl(cacheInfo, false);
+		productJsonCache.init();
+		return productJsonCache;
+	}
+}
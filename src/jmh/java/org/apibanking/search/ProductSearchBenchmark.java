@@ -0,0 +1,69 @@
+package org.apibanking.search;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductSearchResultDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ProductSearchIndex#search over a catalog with a realistic vocabulary: a
+ * selective multi-word query, a prefix query and a price range without text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+
+	private static final String[] ADJECTIVES = { "red", "blue", "green", "black", "white", "steel", "wooden",
+			"compact", "wireless", "portable", "premium", "classic", "smart", "heavy", "light", "outdoor" };
+	private static final String[] NOUNS = { "chair", "table", "lamp", "speaker", "kettle", "drill", "backpack",
+			"monitor", "keyboard", "bottle", "jacket", "tent", "camera", "router", "blender", "watch" };
+
+	@Param({ "1000000" })
+	int catalogSize;
+
+	private ProductSearchIndex index;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		index = new ProductSearchIndex();
+		for (long id = 1; id <= catalogSize; id++) {
+			String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+			String noun = NOUNS[random.nextInt(NOUNS.length)];
+			index.index(new ProductDto(id, adjective + " " + noun + " " + Long.toString(id % 5000, 36),
+					"A " + adjective + " " + noun + " model " + random.nextInt(100_000),
+					Math.round(random.nextDouble() * 100_000) / 100.0, (long) random.nextInt(100), 0L));
+		}
+	}
+
+	@Benchmark
+	public ProductSearchResultDto selectiveQuery() {
+		return index.search("wireless speaker 2bs", null, null, true, 0, 20);
+	}
+
+	@Benchmark
+	public ProductSearchResultDto prefixQuery() {
+		return index.search("keyb 2b", 10.0, 500.0, false, 0, 20);
+	}
+
+	@Benchmark
+	public ProductSearchResultDto priceRange() {
+		return index.search(null, 99.0, 99.5, false, 0, 20);
+	}
+}
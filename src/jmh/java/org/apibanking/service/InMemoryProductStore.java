@@ -0,0 +1,56 @@
+package org.apibanking.service;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apibanking.dto.ProductDto;
+
+/**
+ * Stand-in for the product table that answers the same keyset page queries as
+ * ProductSqlRepository#findPage, backed by one pre-sorted list per sort key instead
+ * of indexes.
+ */
+final class InMemoryProductStore {
+
+	private final Map<ProductSort, List<ProductDto>> sorted = new EnumMap<>(ProductSort.class);
+
+	InMemoryProductStore(List<ProductDto> products) {
+		for (ProductSort sort : ProductSort.values()) {
+			sorted.put(sort, products.stream().sorted(comparator(sort)).toList());
+		}
+	}
+
+	/**
+	 * Page after the product with the given sort value and id, or the first
+	 * page when {@code afterId} is {@code null}.
+	 */
+	List<ProductDto> page(ProductSort sort, Object afterValue, Long afterId, int limit) {
+		List<ProductDto> products = sorted.get(sort);
+		int from = 0;
+		if (afterId != null) {
+			ProductDto key = ProductDto.builder().id(afterId).build();
+			if (afterValue instanceof Double price) {
+				key.setPrice(price);
+			} else if (afterValue instanceof String name) {
+				key.setName(name);
+			} else if (afterValue instanceof Long quantity) {
+				key.setQuantity(quantity);
+			}
+			int position = Collections.binarySearch(products, key, comparator(sort));
+			from = position >= 0 ? position + 1 : -position - 1;
+		}
+		return products.subList(from, Math.min(from + limit, products.size()));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Comparator<ProductDto> comparator(ProductSort sort) {
+		Comparator<ProductDto> byId = Comparator.comparing(ProductDto::getId);
+		if (sort == ProductSort.ID) {
+			return byId;
+		}
+		return Comparator.comparing((ProductDto product) -> (Comparable) sort.extract(product)).thenComparing(byId);
+	}
+}
@@ -0,0 +1,34 @@
+package org.apibanking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.entity.Product;
+
+/**
+ * Deterministic product data shared by the benchmarks.
+ */
+final class ProductFixtures {
+
+	private ProductFixtures() {
+	}
+
+	static List<Product> products(int count) {
+		Random random = new Random(42);
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			Product product = new Product("Product " + i, "Description of product " + i,
+					Math.round(random.nextDouble() * 100_000) / 100.0, (long) random.nextInt(1_000));
+			product.id = (long) i;
+			products.add(product);
+		}
+		return products;
+	}
+
+	static List<ProductDto> productDtos(int count) {
+		ProductService productService = new ProductService();
+		return products(count).stream().map(productService::toProductDto).toList();
+	}
+}
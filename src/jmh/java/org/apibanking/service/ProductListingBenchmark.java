@@ -0,0 +1,119 @@
+package org.apibanking.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductPageDto;
+import org.apibanking.dto.ProductSummary;
+import org.apibanking.json.ProductJsonCache;
+import org.apibanking.json.ProductJsonCaches;
+import org.apibanking.repository.ProductSqlRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * End-to-end listing path of ProductService#getAllProducts (parameter
+ * resolution, cursor decoding, request coalescing, keyset page lookup and
+ * next-cursor encoding) followed by the JSON encoding of the page through
+ * ProductJsonCache, against an in-process store instead of PostgreSQL. With
+ * {@code jsonCached} every product already has a cache entry, as after clients
+ * have fetched them one by one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListingBenchmark {
+
+	@Param({ "100000" })
+	int catalogSize;
+
+	@Param({ "100", "1000" })
+	int limit;
+
+	@Param({ "ID", "PRICE", "NAME" })
+	ProductSort sort;
+
+	@Param({ "false", "true" })
+	boolean jsonCached;
+
+	private ProductService productService;
+	private ProductJsonCache productJsonCache;
+	private String middleCursor;
+
+	@Setup
+	public void setUp() throws IOException {
+		List<ProductDto> products = ProductFixtures.productDtos(catalogSize);
+		products.forEach(product -> product.setVersion(0L));
+		productJsonCache = ProductJsonCaches.create(new ObjectMapper(), catalogSize);
+		if (jsonCached) {
+			for (ProductDto product : products) {
+				productJsonCache.encodeAndCache(product);
+			}
+		}
+		InMemoryProductStore store = new InMemoryProductStore(products);
+		productService = new ProductService();
+		productService.productSqlRepository = new InMemoryProductRepository(store);
+		productService.registry = new SimpleMeterRegistry();
+		productService.init();
+		ProductDto middle = store.page(sort, null, null, catalogSize / 2).get(catalogSize / 2 - 1);
+		middleCursor = ProductCursor.of(middle, sort, false).encode();
+	}
+
+	@Benchmark
+	public byte[] firstPage() throws IOException {
+		return productJsonCache.encodeAll(list(null).getItems());
+	}
+
+	@Benchmark
+	public byte[] pageAfterCursor() throws IOException {
+		return productJsonCache.encodeAll(list(middleCursor).getItems());
+	}
+
+	private ProductPageDto<? extends ProductSummary> list(String after) {
+		return productService.getAllProducts(false, sort.name(), null, after, limit, false).await().indefinitely();
+	}
+
+	/**
+	 * Answers the listing queries of ProductSqlRepository from the store.
+	 */
+	private static final class InMemoryProductRepository extends ProductSqlRepository {
+
+		private final InMemoryProductStore store;
+
+		InMemoryProductRepository(InMemoryProductStore store) {
+			this.store = store;
+		}
+
+		@Override
+		public Uni<List<ProductDto>> findPage(String column, boolean descending, Object afterValue, Long afterId,
+				int limit) {
+			if (descending) {
+				throw new UnsupportedOperationException("The store only keeps ascending orders");
+			}
+			ProductSort sort = Arrays.stream(ProductSort.values())
+					.filter(candidate -> candidate.getField().equals(column))
+					.findFirst().orElseThrow();
+			return Uni.createFrom().item(store.page(sort, afterValue, afterId, limit));
+		}
+	}
+}
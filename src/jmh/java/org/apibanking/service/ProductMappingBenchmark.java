@@ -0,0 +1,44 @@
+package org.apibanking.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+	@Param({ "100", "10000" })
+	int size;
+
+	private ProductService productService;
+	private List<Product> products;
+
+	@Setup
+	public void setUp() {
+		productService = new ProductService();
+		products = ProductFixtures.products(size);
+	}
+
+	@Benchmark
+	public List<ProductDto> toProductDtoList() {
+		return products.stream().map(productService::toProductDto).toList();
+	}
+}
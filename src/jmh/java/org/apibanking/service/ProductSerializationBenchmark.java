@@ -0,0 +1,95 @@
+package org.apibanking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.json.ProductJsonCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+
+/**
+ * Serializes the same product list with Jackson, JSON-B, by joining product
+ * JSON that was encoded beforehand, as {@link ProductJsonCache} does, and as
+ * CBOR with and without string references.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+	@Param({ "100", "10000" })
+	int size;
+
+	private List<ProductDto> productDtos;
+	private ObjectMapper objectMapper;
+	private ObjectMapper cborMapper;
+	private ObjectMapper cborStringRefMapper;
+	private Jsonb jsonb;
+	private byte[][] encodedProducts;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		productDtos = ProductFixtures.productDtos(size);
+		objectMapper = new ObjectMapper();
+		cborMapper = new CBORMapper();
+		cborStringRefMapper = CBORMapper.builder().enable(CBORGenerator.Feature.STRINGREF).build();
+		jsonb = JsonbBuilder.create();
+		encodedProducts = new byte[size][];
+		for (int i = 0; i < size; i++) {
+			encodedProducts[i] = objectMapper.writeValueAsBytes(productDtos.get(i));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		jsonb.close();
+	}
+
+	@Benchmark
+	public byte[] jackson() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(productDtos);
+	}
+
+	@Benchmark
+	public byte[] jsonb() {
+		return jsonb.toJson(productDtos).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public byte[] cachedBytes() {
+		return ProductJsonCache.toJsonArray(encodedProducts);
+	}
+
+	@Benchmark
+	public byte[] cbor() throws JsonProcessingException {
+		return cborMapper.writeValueAsBytes(productDtos);
+	}
+
+	@Benchmark
+	public byte[] cborStringRefs() throws JsonProcessingException {
+		return cborStringRefMapper.writeValueAsBytes(productDtos);
+	}
+}
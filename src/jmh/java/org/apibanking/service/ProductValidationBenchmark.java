@@ -0,0 +1,52 @@
+package org.apibanking.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.exception.BadRequestException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductValidationBenchmark {
+
+	private ProductService productService;
+	private ProductDto validProduct;
+	private ProductDto invalidProduct;
+
+	@Setup
+	public void setUp() {
+		productService = new ProductService();
+		validProduct = new ProductDto(null, "Product", "Description", 10.5, 5L, null);
+		invalidProduct = new ProductDto(null, "", "Description", -1D, -5L, null);
+	}
+
+	@Benchmark
+	public ProductDto validProduct() {
+		productService.validateProductDto(validProduct);
+		return validProduct;
+	}
+
+	@Benchmark
+	public Object invalidProduct() {
+		try {
+			productService.validateProductDto(invalidProduct);
+			return invalidProduct;
+		} catch (BadRequestException e) {
+			return e;
+		}
+	}
+}
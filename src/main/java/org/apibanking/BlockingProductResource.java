@@ -0,0 +1,185 @@
+package org.apibanking;
+
+import static org.apibanking.ProductResource.created;
+import static org.apibanking.ProductResource.expectedVersion;
+import static org.apibanking.ProductResource.missing;
+import static org.apibanking.ProductResource.pageResponse;
+import static org.apibanking.ProductResource.prefersCbor;
+import static org.apibanking.ProductResource.productResponse;
+import static org.apibanking.ProductResource.saved;
+import static org.apibanking.ProductResource.summaryFields;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apibanking.admission.AdmissionControlled;
+import org.apibanking.admission.EndpointClass;
+import org.apibanking.cbor.ProductCborWriter;
+import org.apibanking.cbor.VaryAccept;
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductSummary;
+import org.apibanking.dto.StockCheckRequestDto;
+import org.apibanking.dto.StockCheckResultDto;
+import org.apibanking.dto.StockDto;
+import org.apibanking.dto.StockReservationDto;
+import org.apibanking.entity.Product;
+import org.apibanking.exception.NotFoundException;
+import org.apibanking.metrics.MetricsConfiguration;
+import org.apibanking.service.BlockingProductService;
+import org.apibanking.service.ProductService;
+import org.jboss.resteasy.reactive.RestResponse;
+
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Replaces {@link ProductResource} when the application is built with
+ * {@code product.service.stack=blocking}. Single-product, listing and stock
+ * endpoints run {@link BlockingProductService} on virtual threads, so the
+ * build needs JDK 21; batch writes, the export, search and the change feed stay
+ * reactive in both builds, see {@link ProductBulkResource}. Validation and
+ * response building are shared with the reactive resource.
+ */
+@Path("/product")
+@ApplicationScoped
+@Timed(MetricsConfiguration.RESOURCE_TIMER)
+@IfBuildProperty(name = "product.service.stack", stringValue = "blocking")
+public class BlockingProductResource {
+
+	@Inject
+	BlockingProductService blockingProductService;
+
+	@Inject
+	ProductService productService;
+
+	@GET
+	@Path("/{id}")
+	@Produces({ MediaType.APPLICATION_JSON, ProductCborWriter.APPLICATION_CBOR })
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	@VaryAccept
+	public RestResponse<ProductDto> getSingle(@PathParam("id") Long id,
+			@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch, @Context HttpHeaders headers) {
+
+		return productResponse(blockingProductService.getProductById(id), productService.isStockOverlaid(id),
+				prefersCbor(headers), ifNoneMatch);
+	}
+
+	@GET
+	@Produces({ MediaType.APPLICATION_JSON, ProductCborWriter.APPLICATION_CBOR })
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.BULK)
+	@VaryAccept
+	public RestResponse<List<? extends ProductSummary>> getAllProducts(
+			@QueryParam("sortByPrice") boolean sortByPrice, @QueryParam("sort") String sort,
+			@QueryParam("order") String order, @QueryParam("after") String after,
+			@QueryParam("limit") @DefaultValue("100") int limit, @QueryParam("fields") String fields,
+			@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch, @Context HttpHeaders headers) {
+
+		boolean summary = summaryFields(fields);
+		return pageResponse(blockingProductService.getAllProducts(sortByPrice, sort, order, after, limit, summary),
+				summary, prefersCbor(headers), ifNoneMatch);
+	}
+
+	@POST
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.STANDARD)
+	public RestResponse<Product> create(ProductDto productDTO) {
+
+		return created(blockingProductService.createProduct(productDTO));
+	}
+
+	@PUT
+	@Path("/{id}")
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.STANDARD)
+	public RestResponse<Product> update(@PathParam("id") Long id,
+			@HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, ProductDto productDTO) {
+
+		try {
+			return saved(blockingProductService.updateProduct(id, productDTO, expectedVersion(ifMatch)));
+		} catch (NotFoundException e) {
+			throw missing(ifMatch, e);
+		}
+	}
+
+	@PATCH
+	@Path("/{id}")
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.STANDARD)
+	public RestResponse<Product> patch(@PathParam("id") Long id,
+			@HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, ProductDto productDTO) {
+
+		try {
+			return saved(blockingProductService.patchProduct(id, productDTO, expectedVersion(ifMatch)));
+		} catch (NotFoundException e) {
+			throw missing(ifMatch, e);
+		}
+	}
+
+	@DELETE
+	@Path("/{id}")
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.STANDARD)
+	public RestResponse<Void> delete(@PathParam("id") Long id) {
+
+		blockingProductService.deleteProduct(id);
+		return RestResponse.noContent();
+	}
+
+	@GET
+	@Path("/{id}/check-stock")
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	public RestResponse<StockDto> checkStockAvailability(@PathParam("id") Long productId,
+			@QueryParam("count") @DefaultValue("0") Long count) {
+
+		return RestResponse.ok(blockingProductService.checkStockAvailability(productId, count));
+	}
+
+	@POST
+	@Path("/check-stock")
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	public RestResponse<Map<Long, StockCheckResultDto>> checkStockAvailability(List<StockCheckRequestDto> lines) {
+
+		return RestResponse.ok(blockingProductService.checkStockAvailability(lines));
+	}
+
+	@POST
+	@Path("/{id}/reserve")
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	public RestResponse<StockReservationDto> reserveStock(@PathParam("id") Long productId,
+			@QueryParam("count") Long count) {
+
+		return RestResponse.ok(blockingProductService.reserveStock(productId, count));
+	}
+
+	@POST
+	@Path("/{id}/release")
+	@RunOnVirtualThread
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	public RestResponse<StockReservationDto> releaseStock(@PathParam("id") Long productId,
+			@QueryParam("count") Long count) {
+
+		return RestResponse.ok(blockingProductService.releaseStock(productId, count));
+	}
+}
@@ -0,0 +1,133 @@
+package org.apibanking;
+
+import static org.apibanking.ProductResource.NDJSON;
+import static org.apibanking.ProductResource.TOTAL_COUNT_HEADER;
+
+import java.util.List;
+
+import org.apibanking.admission.AdmissionControlled;
+import org.apibanking.admission.EndpointClass;
+import org.apibanking.cbor.ProductCborWriter;
+import org.apibanking.cbor.VaryAccept;
+import org.apibanking.dto.BatchResultDto;
+import org.apibanking.dto.ProductChangeDto;
+import org.apibanking.dto.ProductDto;
+import org.apibanking.metrics.MetricsConfiguration;
+import org.apibanking.service.ProductService;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.RestResponse.ResponseBuilder;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+
+/**
+ * Batch, export, search and change feed endpoints under {@code /product}. They
+ * run on the reactive stack in both builds: with
+ * {@code product.service.stack=blocking} only the endpoints of
+ * {@link BlockingProductResource} move to blocking calls.
+ */
+@Path("/product")
+@ApplicationScoped
+@Timed(MetricsConfiguration.RESOURCE_TIMER)
+public class ProductBulkResource {
+
+	@Inject
+	ProductService productService;
+
+	@GET
+	@Path("/stream")
+	@Produces(NDJSON)
+	@RestStreamElementType(MediaType.APPLICATION_JSON)
+	@AdmissionControlled(EndpointClass.EXPORT)
+	@VaryAccept
+	public Multi<ProductDto> streamAllProducts(@QueryParam("sortByPrice") boolean sortByPrice,
+			@QueryParam("sort") String sort, @QueryParam("order") String order) {
+
+		return productService.streamAllProducts(sortByPrice, sort, order);
+	}
+
+	@GET
+	@Path("/stream")
+	@Produces(ProductCborWriter.APPLICATION_CBOR_SEQ)
+	@AdmissionControlled(EndpointClass.EXPORT)
+	@VaryAccept
+	public Multi<ProductDto> streamAllProductsCbor(@QueryParam("sortByPrice") boolean sortByPrice,
+			@QueryParam("sort") String sort, @QueryParam("order") String order) {
+
+		return productService.streamAllProducts(sortByPrice, sort, order);
+	}
+
+	@GET
+	@Path("/changes")
+	@Produces(MediaType.SERVER_SENT_EVENTS)
+	@AdmissionControlled(EndpointClass.EXPORT)
+	public Multi<OutboundSseEvent> changes(@QueryParam("since") Long since,
+			@HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) Long lastEventId, @Context Sse sse) {
+
+		return productService.streamChanges(lastEventId != null ? lastEventId : since)
+				.onItem().transform(change -> sse.newEventBuilder()
+						.id(String.valueOf(change.getSequence()))
+						.name(change.getType().name())
+						.mediaType(MediaType.APPLICATION_JSON_TYPE)
+						.data(ProductChangeDto.class, change)
+						.build());
+	}
+
+	@GET
+	@Path("/search")
+	@Produces({ MediaType.APPLICATION_JSON, ProductCborWriter.APPLICATION_CBOR })
+	@AdmissionControlled(EndpointClass.BULK)
+	@VaryAccept
+	public Uni<RestResponse<List<ProductDto>>> search(@QueryParam("q") String query,
+			@QueryParam("minPrice") Double minPrice, @QueryParam("maxPrice") Double maxPrice,
+			@QueryParam("inStock") boolean inStock, @QueryParam("page") @DefaultValue("0") int page,
+			@QueryParam("size") @DefaultValue("20") int size) {
+
+		return productService.searchProducts(query, minPrice, maxPrice, inStock, page, size)
+				.onItem().transform(result -> ResponseBuilder.ok(result.getItems())
+						.header(TOTAL_COUNT_HEADER, result.getTotal())
+						.build());
+	}
+
+	@POST
+	@Path("/batch")
+	@AdmissionControlled(EndpointClass.BULK)
+	public Uni<RestResponse<BatchResultDto>> createBatch(List<ProductDto> productDTOs) {
+
+		return productService.createProducts(productDTOs).onItem().transform(result -> RestResponse.ok(result));
+	}
+
+	@PUT
+	@Path("/batch")
+	@AdmissionControlled(EndpointClass.BULK)
+	public Uni<RestResponse<BatchResultDto>> updateBatch(List<ProductDto> productDTOs) {
+
+		return productService.updateProducts(productDTOs).onItem().transform(result -> RestResponse.ok(result));
+	}
+
+	@DELETE
+	@Path("/batch")
+	@AdmissionControlled(EndpointClass.BULK)
+	public Uni<RestResponse<BatchResultDto>> deleteBatch(List<ProductDto> productDTOs) {
+
+		return productService.deleteProducts(productDTOs).onItem().transform(result -> RestResponse.ok(result));
+	}
+}
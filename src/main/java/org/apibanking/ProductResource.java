@@ -1,68 +1,132 @@
 package org.apibanking;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
+import org.apibanking.admission.AdmissionControlled;
+import org.apibanking.admission.EndpointClass;
+import org.apibanking.cbor.ProductCborWriter;
+import org.apibanking.cbor.VaryAccept;
 import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductPageDto;
+import org.apibanking.dto.ProductSummary;
+import org.apibanking.dto.StockCheckRequestDto;
+import org.apibanking.dto.StockCheckResultDto;
 import org.apibanking.dto.StockDto;
+import org.apibanking.dto.StockReservationDto;
 import org.apibanking.entity.Product;
+import org.apibanking.exception.BadRequestException;
+import org.apibanking.exception.NotFoundException;
+import org.apibanking.exception.PreconditionFailedException;
+import org.apibanking.metrics.MetricsConfiguration;
 import org.apibanking.service.ProductService;
 import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.RestResponse.ResponseBuilder;
 
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
 @Path("/product")
 @ApplicationScoped
+@Timed(MetricsConfiguration.RESOURCE_TIMER)
+@UnlessBuildProperty(name = "product.service.stack", stringValue = "blocking", enableIfMissing = true)
 public class ProductResource {
 
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+	static final String NDJSON = "application/x-ndjson";
+	/** Appended to the ETags of CBOR responses, which must not match the JSON ones. */
+	static final String CBOR_TAG_SUFFIX = "-cbor";
+
+	private static final MediaType CBOR_TYPE = MediaType.valueOf(ProductCborWriter.APPLICATION_CBOR);
+
 	@Inject
 	private ProductService productService;
 
 	@GET
 	@Path("/{id}")
-	public Uni<RestResponse<ProductDto>> getSingle(@PathParam("id") Long id) {
+	@Produces({ MediaType.APPLICATION_JSON, ProductCborWriter.APPLICATION_CBOR })
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	@VaryAccept
+	public Uni<RestResponse<ProductDto>> getSingle(@PathParam("id") Long id,
+			@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch, @Context HttpHeaders headers) {
 
-		return productService.getProductById(id).onItem().transform(productDto -> 
-			 RestResponse.ok(productDto));
+		boolean cbor = prefersCbor(headers);
+		return productService.getProductById(id).onItem().transform(
+				productDto -> productResponse(productDto, productService.isStockOverlaid(id), cbor, ifNoneMatch));
 	}
 
 	@GET
-	public Uni<RestResponse<List<ProductDto>>> getAllProducts(@QueryParam("sortByPrice") boolean sortByPrice) {
+	@Produces({ MediaType.APPLICATION_JSON, ProductCborWriter.APPLICATION_CBOR })
+	@AdmissionControlled(EndpointClass.BULK)
+	@VaryAccept
+	public Uni<RestResponse<List<? extends ProductSummary>>> getAllProducts(
+			@QueryParam("sortByPrice") boolean sortByPrice, @QueryParam("sort") String sort,
+			@QueryParam("order") String order, @QueryParam("after") String after,
+			@QueryParam("limit") @DefaultValue("100") int limit, @QueryParam("fields") String fields,
+			@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch, @Context HttpHeaders headers) {
 
-		return productService.getAllProducts(sortByPrice)
-	            .onItem().transform(productDtoList -> RestResponse.ok(productDtoList));
+		boolean summary = summaryFields(fields);
+		boolean cbor = prefersCbor(headers);
+		return productService.getAllProducts(sortByPrice, sort, order, after, limit, summary)
+	            .onItem().transform(page -> pageResponse(page, summary, cbor, ifNoneMatch));
 	}
 
 	@POST
+	@AdmissionControlled(EndpointClass.STANDARD)
 	public Uni<RestResponse<Product>> create(ProductDto productDTO) {
 
-		return productService.createProduct(productDTO).onItem().transform(product -> 
+		return productService.createProduct(productDTO).onItem().transform(ProductResource::created);
+	}
 
-			 RestResponse.status(Response.Status.CREATED, product));
+	@PUT
+	@Path("/{id}")
+	@AdmissionControlled(EndpointClass.STANDARD)
+	public Uni<RestResponse<Product>> update(@PathParam("id") Long id,
+			@HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, ProductDto productDTO) {
 
+		return productService.updateProduct(id, productDTO, expectedVersion(ifMatch))
+				.onFailure(NotFoundException.class).transform(failure -> missing(ifMatch, (NotFoundException) failure))
+				.onItem().transform(ProductResource::saved);
 	}
 
-	@PUT
+	@PATCH
 	@Path("/{id}")
-	public Uni<RestResponse<Product>> update(@PathParam("id") Long id, ProductDto productDTO) {
+	@AdmissionControlled(EndpointClass.STANDARD)
+	public Uni<RestResponse<Product>> patch(@PathParam("id") Long id,
+			@HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, ProductDto productDTO) {
 
-		return productService.updateProduct(id, productDTO).onItem().transform(updatedProduct -> 
-			 RestResponse.ok(updatedProduct));
-		
+		return productService.patchProduct(id, productDTO, expectedVersion(ifMatch))
+				.onFailure(NotFoundException.class).transform(failure -> missing(ifMatch, (NotFoundException) failure))
+				.onItem().transform(ProductResource::saved);
 	}
 
 	@DELETE
 	@Path("/{id}")
+	@AdmissionControlled(EndpointClass.STANDARD)
 	public Uni<RestResponse<Void>> delete(@PathParam("id") Long id) {
 
 		return productService.deleteProduct(id).onItem().transform(updatedProduct -> 
@@ -71,10 +135,197 @@ public class ProductResource {
 
 	@GET
 	@Path("/{id}/check-stock")
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
 	public Uni<RestResponse<StockDto>> checkStockAvailability(@PathParam("id") Long productId,
 			@QueryParam("count") @DefaultValue("0") Long count) {
 
 		return productService.checkStockAvailability(productId, count)
 				.onItem().transform(stock -> RestResponse.ok(stock));
 	}
+
+	@POST
+	@Path("/check-stock")
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	public Uni<RestResponse<Map<Long, StockCheckResultDto>>> checkStockAvailability(
+			List<StockCheckRequestDto> lines) {
+
+		return productService.checkStockAvailability(lines)
+				.onItem().transform(results -> RestResponse.ok(results));
+	}
+
+	@POST
+	@Path("/{id}/reserve")
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	public Uni<RestResponse<StockReservationDto>> reserveStock(@PathParam("id") Long productId,
+			@QueryParam("count") Long count) {
+
+		return productService.reserveStock(productId, count)
+				.onItem().transform(reservation -> RestResponse.ok(reservation));
+	}
+
+	@POST
+	@Path("/{id}/release")
+	@AdmissionControlled(EndpointClass.INTERACTIVE)
+	public Uni<RestResponse<StockReservationDto>> releaseStock(@PathParam("id") Long productId,
+			@QueryParam("count") Long count) {
+
+		return productService.releaseStock(productId, count)
+				.onItem().transform(reservation -> RestResponse.ok(reservation));
+	}
+
+	static RestResponse<ProductDto> productResponse(ProductDto productDto, boolean stockOverlaid, boolean cbor,
+			String ifNoneMatch) {
+		EntityTag etag = productTag(productDto, stockOverlaid, cbor);
+		if (matchesAny(ifNoneMatch, etag)) {
+			return ResponseBuilder.<ProductDto>notModified(etag).build();
+		}
+		return ResponseBuilder.ok(productDto).tag(etag).build();
+	}
+
+	static RestResponse<Product> created(Product product) {
+		return ResponseBuilder.create(Response.Status.CREATED, product).tag(versionTag(product.getVersion())).build();
+	}
+
+	static RestResponse<Product> saved(Product product) {
+		return ResponseBuilder.ok(product).tag(versionTag(product.getVersion())).build();
+	}
+
+	static RestResponse<List<? extends ProductSummary>> pageResponse(ProductPageDto<? extends ProductSummary> page,
+			boolean summary, boolean cbor, String ifNoneMatch) {
+		EntityTag etag = pageTag(page.getItems(), summary, cbor);
+		ResponseBuilder<List<? extends ProductSummary>> response = matchesAny(ifNoneMatch, etag)
+				? ResponseBuilder.<List<? extends ProductSummary>>notModified(etag)
+				: ResponseBuilder.<List<? extends ProductSummary>>ok(page.getItems()).tag(etag);
+		if (page.getNextCursor() != null) {
+			response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return response.build();
+	}
+
+	/**
+	 * {@code fields=summary} selects the listing projection (id, name, price,
+	 * quantity and version); without it full products are returned.
+	 */
+	static boolean summaryFields(String fields) {
+		if (fields == null || fields.isBlank()) {
+			return false;
+		}
+		if (fields.trim().equalsIgnoreCase("summary")) {
+			return true;
+		}
+		throw new BadRequestException("Fields should be summary when given.");
+	}
+
+	static EntityTag versionTag(Long version) {
+		return new EntityTag(String.valueOf(version));
+	}
+
+	/**
+	 * Tag of a single product. Stock from the write-behind view changes without
+	 * a new version, so while it is overlaid the quantity is part of the tag.
+	 */
+	static EntityTag productTag(ProductDto product, boolean stockOverlaid, boolean cbor) {
+		String tag = stockOverlaid ? product.getVersion() + "." + product.getQuantity()
+				: String.valueOf(product.getVersion());
+		return new EntityTag(cbor ? tag + CBOR_TAG_SUFFIX : tag);
+	}
+
+	/**
+	 * Tag of a listing page, a SHA-256 digest of the id and version of every
+	 * product on it, so it changes whenever any of them is written, added or
+	 * removed. The summary projection and the CBOR representation get their own
+	 * tags.
+	 */
+	static EntityTag pageTag(List<? extends ProductSummary> products, boolean summary, boolean cbor) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+		ByteBuffer entry = ByteBuffer.allocate(2 * Long.BYTES);
+		for (ProductSummary product : products) {
+			entry.clear();
+			entry.putLong(product.getId()).putLong(product.getVersion() == null ? -1 : product.getVersion());
+			digest.update(entry.array());
+		}
+		return new EntityTag((summary ? "s" : "") + products.size() + "-"
+				+ Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest())
+				+ (cbor ? CBOR_TAG_SUFFIX : ""));
+	}
+
+	/**
+	 * Whether the response will be CBOR, that is whether the most preferred
+	 * media type in {@code Accept} that this API can produce is CBOR. JSON wins
+	 * for wildcards, as it does in content negotiation.
+	 */
+	static boolean prefersCbor(HttpHeaders headers) {
+		for (MediaType accepted : headers.getAcceptableMediaTypes()) {
+			if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+				return false;
+			}
+			if (accepted.isCompatible(CBOR_TYPE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static boolean matchesAny(String ifNoneMatch, EntityTag etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			// If-None-Match uses weak comparison, so a W/ prefix is ignored
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals("\"" + etag.getValue() + "\"")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Version an If-Match header requires, or {@code null} for none. {@code *}
+	 * requires no particular version, only that the product exists, see
+	 * {@link #missing}.
+	 */
+	static Long expectedVersion(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || isAnyTag(ifMatch)) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		try {
+			if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+				String value = tag.substring(1, tag.length() - 1);
+				if (value.endsWith(CBOR_TAG_SUFFIX)) {
+					value = value.substring(0, value.length() - CBOR_TAG_SUFFIX.length());
+				}
+				// tags of overlaid stock carry the quantity after the version
+				int quantity = value.indexOf('.');
+				return Long.valueOf(quantity < 0 ? value : value.substring(0, quantity));
+			}
+		} catch (NumberFormatException e) {
+			// fall through to the precondition failure below
+		}
+		throw new PreconditionFailedException("If-Match should be a strong ETag returned by this API.");
+	}
+
+	/**
+	 * Failure of a conditional write to a missing product. {@code If-Match: *}
+	 * only holds while the product exists, so it fails with 412 rather than 404
+	 * (RFC 9110, section 13.1.1).
+	 */
+	static RuntimeException missing(String ifMatch, NotFoundException notFound) {
+		return ifMatch != null && isAnyTag(ifMatch)
+				? new PreconditionFailedException(notFound.getMessage())
+				: notFound;
+	}
+
+	private static boolean isAnyTag(String ifMatch) {
+		return ifMatch.trim().equals("*");
+	}
 }
@@ -0,0 +1,17 @@
+package org.apibanking.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a resource method behind the concurrency limit of its
+ * {@link EndpointClass}. Methods without it are never limited.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionControlled {
+
+	EndpointClass value();
+}
@@ -0,0 +1,150 @@
+package org.apibanking.admission;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apibanking.exception.OverloadedException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+
+/**
+ * Admission control for the methods marked {@link AdmissionControlled}
+ * ({@code product.admission.enabled}). Each {@link EndpointClass} has its own
+ * {@link GradientLimiter}, and a request beyond its class limit, or arriving
+ * while a higher-priority class is at its limit, is refused at once with 503
+ * and {@code Retry-After} instead of queueing for a database connection.
+ * <p>
+ * A request holds its slot until its response has been written, but the
+ * latency the limiter learns from ends when the resource method's result is
+ * ready, before it is serialized and sent, so slow clients do not look like a
+ * slow database. The {@link EndpointClass#EXPORT} class is not timed and keeps
+ * the fixed limit {@code product.admission.export-limit}.
+ */
+public class AdmissionFilter {
+
+	public static final String LIMIT_GAUGE = "product.admission.limit";
+	public static final String IN_FLIGHT_GAUGE = "product.admission.in-flight";
+	public static final String REQUESTS = "product.admission.requests";
+
+	private static final String ADMITTED_PROPERTY = AdmissionFilter.class.getName() + ".admitted";
+	private static final String START_PROPERTY = AdmissionFilter.class.getName() + ".start";
+
+	@ConfigProperty(name = "product.admission.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@ConfigProperty(name = "product.admission.initial-limit", defaultValue = "50")
+	int initialLimit;
+
+	@ConfigProperty(name = "product.admission.min-limit", defaultValue = "5")
+	int minLimit;
+
+	@ConfigProperty(name = "product.admission.max-limit", defaultValue = "500")
+	int maxLimit;
+
+	@ConfigProperty(name = "product.admission.export-limit", defaultValue = "20")
+	int exportLimit;
+
+	@ConfigProperty(name = "product.admission.retry-after", defaultValue = "1s")
+	Duration retryAfter;
+
+	@Inject
+	MeterRegistry registry;
+
+	private final Map<EndpointClass, GradientLimiter> limiters = new EnumMap<>(EndpointClass.class);
+	private final Map<EndpointClass, Counter> admitted = new EnumMap<>(EndpointClass.class);
+	private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+	private final Map<Method, Optional<EndpointClass>> classes = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void init() {
+		if (!enabled) {
+			return;
+		}
+		for (EndpointClass endpointClass : EndpointClass.values()) {
+			GradientLimiter limiter = endpointClass.isTimed()
+					? new GradientLimiter(initialLimit, minLimit, maxLimit)
+					: new GradientLimiter(exportLimit, exportLimit, exportLimit);
+			String tag = endpointClass.name().toLowerCase(Locale.ROOT);
+			limiters.put(endpointClass, limiter);
+			Gauge.builder(LIMIT_GAUGE, limiter, GradientLimiter::getLimit).tag("class", tag).register(registry);
+			Gauge.builder(IN_FLIGHT_GAUGE, limiter, GradientLimiter::getInFlight).tag("class", tag)
+					.register(registry);
+			admitted.put(endpointClass, requestCounter(tag, "admitted"));
+			rejected.put(endpointClass, requestCounter(tag, "rejected"));
+		}
+		Log.infof("Admission control enabled, initial limit %d per endpoint class", initialLimit);
+	}
+
+	private Counter requestCounter(String tag, String outcome) {
+		return Counter.builder(REQUESTS).tag("class", tag).tag("outcome", outcome).register(registry);
+	}
+
+	@ServerRequestFilter
+	public void admit(ContainerRequestContext requestContext, ResourceInfo resourceInfo,
+			RoutingContext routingContext) {
+		if (!enabled || resourceInfo.getResourceMethod() == null) {
+			return;
+		}
+		EndpointClass endpointClass = classes.computeIfAbsent(resourceInfo.getResourceMethod(),
+				method -> Optional.ofNullable(method.getAnnotation(AdmissionControlled.class))
+						.map(AdmissionControlled::value))
+				.orElse(null);
+		if (endpointClass == null) {
+			return;
+		}
+		GradientLimiter limiter = limiters.get(endpointClass);
+		if (higherPrioritySaturated(endpointClass) || !limiter.tryAcquire()) {
+			rejected.get(endpointClass).increment();
+			throw new OverloadedException("Service is overloaded, retry later.",
+					Math.max(1, retryAfter.toSeconds()));
+		}
+		admitted.get(endpointClass).increment();
+		routingContext.addEndHandler(result -> limiter.release());
+		if (endpointClass.isTimed()) {
+			requestContext.setProperty(ADMITTED_PROPERTY, endpointClass);
+			requestContext.setProperty(START_PROPERTY, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Feeds the limiter with the time from admission until the result of the
+	 * resource method, error responses included, is ready to be written.
+	 */
+	@ServerResponseFilter
+	public void sample(ContainerRequestContext requestContext) {
+		Object endpointClass = requestContext.getProperty(ADMITTED_PROPERTY);
+		if (endpointClass == null) {
+			return;
+		}
+		long started = (Long) requestContext.getProperty(START_PROPERTY);
+		limiters.get((EndpointClass) endpointClass).sample(System.nanoTime() - started);
+	}
+
+	private boolean higherPrioritySaturated(EndpointClass endpointClass) {
+		for (EndpointClass higher : EndpointClass.values()) {
+			if (higher == endpointClass) {
+				return false;
+			}
+			if (limiters.get(higher).isSaturated()) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,38 @@
+package org.apibanking.admission;
+
+/**
+ * Admission classes of the product endpoints, highest priority first. A class
+ * is only admitted while every class before it is below its own limit, so when
+ * the database slows down bulk work is shed before the interactive calls.
+ */
+public enum EndpointClass {
+
+	/** Single-product reads, stock checks and reservations. */
+	INTERACTIVE(true),
+
+	/** Single-product writes. */
+	STANDARD(true),
+
+	/** Catalog listings, search and batch writes. */
+	BULK(true),
+
+	/**
+	 * The catalog export and the change feed. Their responses last as long as
+	 * the client keeps reading, which says nothing about the database, so they
+	 * are not timed and the class has a fixed limit.
+	 */
+	EXPORT(false);
+
+	private final boolean timed;
+
+	EndpointClass(boolean timed) {
+		this.timed = timed;
+	}
+
+	/**
+	 * Whether the latency of admitted requests adapts the limit of the class.
+	 */
+	public boolean isTimed() {
+		return timed;
+	}
+}
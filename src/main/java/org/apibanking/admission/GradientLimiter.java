@@ -0,0 +1,97 @@
+package org.apibanking.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit in the style of Netflix's Gradient2 limiter. It
+ * tracks a short and a long exponential average of request latency; while the
+ * short average stays near the long one the limit grows by a queue allowance
+ * of {@code sqrt(limit)}, and when requests start queueing in the database the
+ * short average rises above the long one and the limit shrinks by their ratio
+ * (never by more than half per sample). The limit is smoothed and kept between
+ * the configured bounds.
+ */
+class GradientLimiter {
+
+	static final double TOLERANCE = 1.5;
+	static final double SMOOTHING = 0.2;
+	static final int SHORT_WINDOW = 10;
+	static final int LONG_WINDOW = 600;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private volatile double limit;
+	private double shortRtt;
+	private double longRtt;
+	private long samples;
+
+	GradientLimiter(int initialLimit, int minLimit, int maxLimit) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+	}
+
+	/**
+	 * Takes a slot if fewer requests than the current limit are in flight.
+	 */
+	boolean tryAcquire() {
+		int current;
+		do {
+			current = inFlight.get();
+			if (current >= (int) limit) {
+				return false;
+			}
+		} while (!inFlight.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	boolean isSaturated() {
+		return inFlight.get() >= (int) limit;
+	}
+
+	/**
+	 * Adapts the limit to the latency of an admitted request, taken once its
+	 * result is ready and while it still holds its slot.
+	 */
+	void sample(long rttNanos) {
+		update(rttNanos, inFlight.get());
+	}
+
+	/**
+	 * Frees the slot of a finished request.
+	 */
+	void release() {
+		inFlight.decrementAndGet();
+	}
+
+	private synchronized void update(long rttNanos, int inFlightBefore) {
+		samples++;
+		shortRtt = average(shortRtt, rttNanos, Math.min(samples, SHORT_WINDOW));
+		longRtt = average(longRtt, rttNanos, Math.min(samples, LONG_WINDOW));
+		if (longRtt / shortRtt > 2) {
+			// latency dropped well below the long-term average, let the baseline follow it down
+			longRtt *= 0.95;
+		}
+		if (inFlightBefore < limit / 2) {
+			// the limit is not what holds requests back, so their latency says nothing about it
+			return;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+		double target = limit * gradient + Math.sqrt(limit);
+		double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+		limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+	}
+
+	private static double average(double average, long sample, long window) {
+		return average + (sample - average) / window;
+	}
+
+	int getLimit() {
+		return (int) limit;
+	}
+
+	int getInFlight() {
+		return inFlight.get();
+	}
+}
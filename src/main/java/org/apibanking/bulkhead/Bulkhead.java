@@ -0,0 +1,61 @@
+package org.apibanking.bulkhead;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.apibanking.exception.OverloadedException;
+
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.ConnectionPoolTooBusyException;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.SqlClient;
+
+/**
+ * One connection pool of the bulkheads. When bulkheads are enabled the time
+ * each query waits for a connection is recorded, and a query that finds the
+ * wait queue full or waits longer than the acquire timeout fails with
+ * {@link OverloadedException} instead of holding up callers of other pools.
+ */
+public class Bulkhead {
+
+	private final String name;
+	private final Pool pool;
+	private final Timer wait;
+	private final long retryAfterSeconds;
+
+	Bulkhead(String name, Pool pool, Timer wait, long retryAfterSeconds) {
+		this.name = name;
+		this.pool = pool;
+		this.wait = wait;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public <T> Uni<T> execute(Function<SqlClient, Uni<T>> query) {
+		if (wait == null) {
+			return query.apply(pool);
+		}
+		return Uni.createFrom().deferred(() -> {
+			long started = System.nanoTime();
+			AtomicBoolean acquired = new AtomicBoolean();
+			// withConnection returns the connection itself once the query ends, even if the caller cancelled
+			return pool.withConnection(connection -> {
+				acquired.set(true);
+				wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+				return query.apply(connection);
+			}).onFailure(failure -> !acquired.get()).transform(failure -> {
+				wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+				return failure instanceof TimeoutException || failure instanceof ConnectionPoolTooBusyException
+						? new OverloadedException("No database connection available in the " + name + " pool.",
+								retryAfterSeconds)
+						: failure;
+			});
+		});
+	}
+}
@@ -0,0 +1,46 @@
+package org.apibanking.bulkhead;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * {@code product.bulkhead.*}: the named connection pools and which database
+ * operation runs on which pool.
+ */
+@ConfigMapping(prefix = "product.bulkhead")
+public interface BulkheadConfig {
+
+	@WithDefault("false")
+	boolean enabled();
+
+	/**
+	 * Pools by name, e.g. {@code product.bulkhead.pools.interactive.max-size}.
+	 */
+	Map<String, PoolConfig> pools();
+
+	/**
+	 * Pool name by database operation, e.g.
+	 * {@code product.bulkhead.operations.findById=interactive}. Operations that
+	 * are not listed run on the default datasource pool.
+	 */
+	Map<String, String> operations();
+
+	interface PoolConfig {
+
+		@WithDefault("4")
+		int maxSize();
+
+		/**
+		 * Requests allowed to wait for a connection; beyond that they fail at
+		 * once. {@code -1} means unbounded.
+		 */
+		@WithDefault("100")
+		int maxWaitQueueSize();
+
+		@WithDefault("2s")
+		Duration acquireTimeout();
+	}
+}
@@ -0,0 +1,114 @@
+package org.apibanking.bulkhead;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apibanking.repository.PrimaryConnectOptions;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.PgBuilder;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.SqlConnectOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Separately sized connection pools to the primary ({@code product.bulkhead.enabled}),
+ * so that export scans and bulk writes queue for their own connections and
+ * cannot push up the latency of interactive reads. The pools copy the hosts and
+ * pool options of the default datasource and only change the size, wait queue
+ * and acquire timeout. Each database operation of {@code ProductSqlRepository}
+ * runs on the pool configured for it, or on the default datasource pool.
+ * <p>
+ * Everything Hibernate Reactive runs, which includes single-product writes and
+ * batch creates and updates, stays on the default pool, and the blocking stack
+ * uses its own JDBC pool; neither goes through a bulkhead.
+ */
+@ApplicationScoped
+public class Bulkheads {
+
+	public static final String DEFAULT = "default";
+	public static final String WAIT_TIMER = "product.bulkhead.wait";
+
+	@Inject
+	BulkheadConfig config;
+
+	@ConfigProperty(name = "product.admission.retry-after", defaultValue = "1s")
+	Duration retryAfter;
+
+	@Inject
+	Pool defaultPool;
+
+	@Inject
+	PrimaryConnectOptions primaryConnectOptions;
+
+	@Inject
+	Vertx vertx;
+
+	@Inject
+	MeterRegistry registry;
+
+	private final Map<String, Bulkhead> byOperation = new HashMap<>();
+	private final Map<String, Pool> pools = new HashMap<>();
+	private Bulkhead defaultBulkhead;
+
+	@PostConstruct
+	void init() {
+		long retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+		if (!config.enabled()) {
+			defaultBulkhead = new Bulkhead(DEFAULT, defaultPool, null, retryAfterSeconds);
+			return;
+		}
+		defaultBulkhead = new Bulkhead(DEFAULT, defaultPool, waitTimer(DEFAULT), retryAfterSeconds);
+		Map<String, Bulkhead> byName = new HashMap<>();
+		List<SqlConnectOptions> primaries = new ArrayList<>(primaryConnectOptions.all());
+		config.pools().forEach((name, pool) -> {
+			PoolOptions options = primaryConnectOptions.poolOptions()
+					.setName("product-" + name)
+					.setMaxSize(pool.maxSize())
+					.setMaxWaitQueueSize(pool.maxWaitQueueSize())
+					.setConnectionTimeout((int) pool.acquireTimeout().toMillis())
+					.setConnectionTimeoutUnit(TimeUnit.MILLISECONDS);
+			Pool created = PgBuilder.pool().with(options).connectingTo(primaries).using(vertx).build();
+			pools.put(name, created);
+			byName.put(name, new Bulkhead(name, created, waitTimer(name), retryAfterSeconds));
+			Log.infof("Bulkhead %s: %d connections, %d waiting, %s acquire timeout", name, pool.maxSize(),
+					pool.maxWaitQueueSize(), pool.acquireTimeout());
+		});
+		config.operations().forEach((operation, name) -> {
+			Bulkhead bulkhead = byName.get(name);
+			if (bulkhead == null && !name.equals(DEFAULT)) {
+				throw new IllegalStateException("product.bulkhead.operations." + operation
+						+ " refers to the unknown pool " + name);
+			}
+			byOperation.put(operation, bulkhead == null ? defaultBulkhead : bulkhead);
+		});
+	}
+
+	private Timer waitTimer(String name) {
+		return Timer.builder(WAIT_TIMER).tag("bulkhead", name).register(registry);
+	}
+
+	/**
+	 * The pool a database operation runs on.
+	 */
+	public Bulkhead forOperation(String operation) {
+		return byOperation.getOrDefault(operation, defaultBulkhead);
+	}
+
+	void close(@Observes ShutdownEvent event) {
+		pools.values().forEach(Pool::closeAndForget);
+	}
+}
@@ -0,0 +1,89 @@
+package org.apibanking.cbor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.List;
+
+import org.apibanking.dto.ErrorResponse;
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductSummary;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes products, product lists and the errors of those endpoints as CBOR
+ * (RFC 8949) for clients that send {@code Accept: application/cbor}. Prices stay
+ * binary doubles. Lists use string references (tags 256 and 25): each field
+ * name and repeated value is written once and referenced by index after that,
+ * which makes a listing page about a quarter smaller than plain CBOR at some
+ * extra encoding cost (see {@code ProductSerializationBenchmark}). A single
+ * product has nothing to reference, so it and every element of the CBOR
+ * sequence (RFC 8742) streamed by the export are written as plain CBOR.
+ */
+@Provider
+@Produces({ ProductCborWriter.APPLICATION_CBOR, ProductCborWriter.APPLICATION_CBOR_SEQ })
+public class ProductCborWriter implements ServerMessageBodyWriter<Object> {
+
+	public static final String APPLICATION_CBOR = "application/cbor";
+	public static final String APPLICATION_CBOR_SEQ = "application/cbor-seq";
+
+	private final ObjectMapper cborMapper = new CBORMapper();
+	private final ObjectMapper listMapper = CBORMapper.builder()
+			.enable(CBORGenerator.Feature.STRINGREF)
+			.build();
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target,
+			MediaType mediaType) {
+		return isSupported(type, genericType);
+	}
+
+	@Override
+	public void writeResponse(Object entity, Type genericType, ServerRequestContext context) throws IOException {
+		context.serverResponse().end(encode(entity));
+	}
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return isSupported(type, genericType);
+	}
+
+	@Override
+	public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations,
+			MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+			throws IOException {
+		entityStream.write(encode(entity));
+	}
+
+	private byte[] encode(Object entity) throws IOException {
+		return (entity instanceof List ? listMapper : cborMapper).writeValueAsBytes(entity);
+	}
+
+	private static boolean isSupported(Class<?> type, Type genericType) {
+		if (type == ProductDto.class || type == ErrorResponse.class) {
+			return true;
+		}
+		if (!List.class.isAssignableFrom(type) || !(genericType instanceof ParameterizedType list)) {
+			return false;
+		}
+		Type element = list.getActualTypeArguments()[0];
+		if (element instanceof WildcardType wildcard) {
+			element = wildcard.getUpperBounds()[0];
+		}
+		return element instanceof Class<?> elementType && ProductSummary.class.isAssignableFrom(elementType);
+	}
+}
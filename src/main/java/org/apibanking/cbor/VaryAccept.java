@@ -0,0 +1,15 @@
+package org.apibanking.cbor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a resource method whose response is JSON or CBOR depending on
+ * {@code Accept}, see {@link VaryAcceptFilter}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface VaryAccept {
+}
@@ -0,0 +1,32 @@
+package org.apibanking.cbor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+
+/**
+ * Adds {@code Vary: Accept} to the responses of the methods marked
+ * {@link VaryAccept}, so shared caches keep the JSON and CBOR representations
+ * of a URL apart.
+ */
+public class VaryAcceptFilter {
+
+	private final Map<Method, Boolean> negotiated = new ConcurrentHashMap<>();
+
+	@ServerResponseFilter
+	public void vary(ContainerResponseContext responseContext, ResourceInfo resourceInfo) {
+		if (resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+			return;
+		}
+		if (negotiated.computeIfAbsent(resourceInfo.getResourceMethod(),
+				method -> method.isAnnotationPresent(VaryAccept.class))) {
+			responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package org.apibanking.changes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apibanking.dto.ProductChangeDto;
+import org.apibanking.dto.ProductDto;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Sequenced feed of product mutations. The last {@code product.changes.buffer-size}
+ * events are kept in a ring buffer so a consumer can resume after the event id
+ * it last saw; anything older is answered with a single RESYNC event.
+ * <p>
+ * With {@code product.coherence.enabled} the feed only carries the changes
+ * announced on the coherence channel, writes of this node included, under the
+ * change number the database gave them. Every node then holds the same events
+ * in the same (commit) order and an event id can be resumed on any of them.
+ * Without it, events are numbered by this node and only cover its own writes.
+ * <p>
+ * Publishing only appends to the ring. Each consumer copies new events out of
+ * the ring on a worker thread into its own buffer, so a slow consumer never
+ * holds up a writer; one that falls more than {@code product.changes.max-pending}
+ * events behind is disconnected and can reconnect from its last event id.
+ */
+@ApplicationScoped
+public class ProductChangeFeed {
+
+	@ConfigProperty(name = "product.changes.buffer-size", defaultValue = "10000")
+	int bufferSize;
+
+	@ConfigProperty(name = "product.changes.max-pending", defaultValue = "1000")
+	int maxPending;
+
+	@ConfigProperty(name = "product.coherence.enabled", defaultValue = "false")
+	boolean committedOnly;
+
+	private final Object lock = new Object();
+	private final Set<Listener> listeners = ConcurrentHashMap.newKeySet();
+	private ProductChangeDto[] ring;
+	/** Number of events ever appended; the next event goes to this position. */
+	private long head;
+	private long sequence;
+
+	@PostConstruct
+	void init() {
+		ring = new ProductChangeDto[bufferSize];
+	}
+
+	/**
+	 * Publishes a write of this node. With coherence enabled the write reaches
+	 * the feed through {@link #publishCommitted} instead.
+	 */
+	public void publish(ProductChangeDto.Type type, Long id, ProductDto product) {
+		if (committedOnly) {
+			return;
+		}
+		synchronized (lock) {
+			append(new ProductChangeDto(++sequence, type, id, product));
+		}
+		signalAll();
+	}
+
+	/**
+	 * Publishes a change announced on the coherence channel under its database
+	 * change number.
+	 */
+	public void publishCommitted(long changeNumber, ProductChangeDto.Type type, Long id, ProductDto product) {
+		synchronized (lock) {
+			append(new ProductChangeDto(changeNumber, type, id, product));
+		}
+		signalAll();
+	}
+
+	private void append(ProductChangeDto change) {
+		ring[(int) (head++ % ring.length)] = change;
+	}
+
+	private void signalAll() {
+		listeners.forEach(Listener::signal);
+	}
+
+	/**
+	 * Emits every buffered event after the one with id {@code since} (none when
+	 * it is {@code null}) followed by live events, without gaps or duplicates.
+	 */
+	public Multi<ProductChangeDto> subscribe(Long since) {
+		return Multi.createFrom().<ProductChangeDto>emitter(emitter -> {
+			Listener listener = new Listener(emitter);
+			ProductChangeDto resync = null;
+			synchronized (lock) {
+				long position = resumePosition(since);
+				if (position < 0) {
+					resync = resyncEvent();
+					listener.cursor = head;
+				} else {
+					listener.cursor = position;
+				}
+			}
+			if (resync != null) {
+				emitter.emit(resync);
+			}
+			listeners.add(listener);
+			emitter.onTermination(() -> listeners.remove(listener));
+			listener.signal();
+		}, BackPressureStrategy.ERROR).onOverflow().buffer(bufferSize + maxPending);
+	}
+
+	/**
+	 * Ring position to resume from after the event with id {@code since}, or
+	 * {@code -1} when that event is no longer (or not yet) buffered. Called with
+	 * the lock held.
+	 */
+	private long resumePosition(Long since) {
+		if (since == null) {
+			return head;
+		}
+		long oldest = Math.max(0, head - ring.length);
+		if (since == 0 && !committedOnly && oldest == 0) {
+			// local ids start at 1, so 0 is before the first event
+			return 0;
+		}
+		for (long position = head - 1; position >= oldest; position--) {
+			if (ring[(int) (position % ring.length)].getSequence() == since) {
+				return position + 1;
+			}
+		}
+		return -1;
+	}
+
+	private ProductChangeDto resyncEvent() {
+		long latest = head == 0 ? 0 : ring[(int) ((head - 1) % ring.length)].getSequence();
+		return new ProductChangeDto(latest, ProductChangeDto.Type.RESYNC, null, null);
+	}
+
+	/**
+	 * One subscription and the ring position of the next event it should get.
+	 */
+	private final class Listener {
+
+		private final MultiEmitter<? super ProductChangeDto> emitter;
+		private final AtomicInteger signals = new AtomicInteger();
+		private long cursor;
+
+		private Listener(MultiEmitter<? super ProductChangeDto> emitter) {
+			this.emitter = emitter;
+		}
+
+		void signal() {
+			if (signals.getAndIncrement() == 0) {
+				Infrastructure.getDefaultExecutor().execute(this::drain);
+			}
+		}
+
+		private void drain() {
+			int missed = 1;
+			do {
+				List<ProductChangeDto> batch = new ArrayList<>();
+				synchronized (lock) {
+					if (head - cursor > ring.length) {
+						// overwritten before this consumer got to them
+						batch.add(resyncEvent());
+						cursor = head;
+					}
+					for (; cursor < head; cursor++) {
+						batch.add(ring[(int) (cursor % ring.length)]);
+					}
+				}
+				for (ProductChangeDto change : batch) {
+					if (emitter.isCancelled()) {
+						return;
+					}
+					emitter.emit(change);
+				}
+				missed = signals.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
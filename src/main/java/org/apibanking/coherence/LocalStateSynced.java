@@ -0,0 +1,9 @@
+package org.apibanking.coherence;
+
+/**
+ * Fired once the coherence listener has started listening and loaded the local
+ * product state for the first time, with the number of products loaded. Local
+ * state built from then on cannot miss a write of another node.
+ */
+public record LocalStateSynced(int products) {
+}
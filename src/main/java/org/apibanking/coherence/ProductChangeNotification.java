@@ -0,0 +1,31 @@
+package org.apibanking.coherence;
+
+import org.apibanking.dto.ProductChangeDto;
+import org.apibanking.dto.ProductDto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Payload of a {@code product_changed} notification, see migration {@code V5}.
+ * The product is missing for deletes and for rows too large for a
+ * notification.
+ */
+@RegisterForReflection
+record ProductChangeNotification(long seq, String op, Long id, long version, ProductDto product) {
+
+	/**
+	 * Change feed type of the operation, or {@code null} for an unknown one.
+	 */
+	ProductChangeDto.Type type() {
+		if (op == null) {
+			return null;
+		}
+		return switch (op) {
+		case "I" -> ProductChangeDto.Type.CREATED;
+		case "U" -> ProductChangeDto.Type.UPDATED;
+		case "S" -> ProductChangeDto.Type.STOCK;
+		case "D" -> ProductChangeDto.Type.DELETED;
+		default -> null;
+		};
+	}
+}
@@ -0,0 +1,198 @@
+package org.apibanking.coherence;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apibanking.repository.PrimaryConnectOptions;
+import org.apibanking.service.ProductService;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.pgclient.pubsub.PgSubscriber;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Keeps this node's product caches coherent with writes made by other nodes
+ * ({@code product.coherence.enabled}). A dedicated connection to the primary
+ * LISTENs on the {@code product_changed} channel, which a trigger notifies in
+ * the writing transaction once a listening node has switched it on, and each
+ * notification refreshes the local copies of that product and feeds the change
+ * feed. Notifications sent while the connection was down are lost, so the
+ * local product state is only loaded once this node listens, and every
+ * reconnect flushes and reloads it.
+ */
+@ApplicationScoped
+public class ProductCoherenceListener {
+
+	public static final String CHANNEL = "product_changed";
+	public static final String NOTIFICATIONS = "product.coherence.notifications";
+	public static final String RESYNCS = "product.coherence.resyncs";
+
+	private static final Duration MAX_CONNECT_BACKOFF = Duration.ofSeconds(30);
+	private static final int RESYNC_ATTEMPTS = 5;
+	private static final String ENABLE_NOTIFICATIONS = "UPDATE product_change_notify SET enabled = TRUE WHERE NOT enabled";
+
+	@ConfigProperty(name = "product.coherence.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@ConfigProperty(name = "product.coherence.reconnect-delay", defaultValue = "1s")
+	Duration reconnectDelay;
+
+	@Inject
+	PrimaryConnectOptions primaryConnectOptions;
+
+	@Inject
+	Vertx vertx;
+
+	@Inject
+	ProductService productService;
+
+	@Inject
+	MeterRegistry registry;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	Event<LocalStateSynced> synced;
+
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+	private PgSubscriber subscriber;
+	private Cancellable connecting;
+	private Counter staleNotifications;
+	private Counter currentNotifications;
+	private Counter invalidNotifications;
+	private Counter resyncs;
+
+	void start(@Observes StartupEvent event) {
+
+		if (!enabled) {
+			return;
+		}
+		if (!isActive()) {
+			Log.warn("Product cache coherence is enabled but quarkus.datasource.reactive.url is not set, "
+					+ "not listening");
+			return;
+		}
+		staleNotifications = notificationCounter("stale");
+		currentNotifications = notificationCounter("current");
+		invalidNotifications = notificationCounter("invalid");
+		resyncs = Counter.builder(RESYNCS).register(registry);
+
+		subscriber = PgSubscriber.subscriber(vertx, primaryConnectOptions.get())
+				.reconnectPolicy(retries -> reconnectDelay.toMillis());
+		subscriber.channel(CHANNEL)
+				.subscribeHandler(this::subscribed)
+				.handler(this::notified);
+		connecting = subscriber.connect()
+				.onFailure().invoke(failure -> Log.warnf("Failed to LISTEN on %s, retrying: %s", CHANNEL,
+						failure.getMessage()))
+				.onFailure().retry().withBackOff(reconnectDelay, MAX_CONNECT_BACKOFF).indefinitely()
+				.subscribe().with(ignored -> { });
+	}
+
+	void stop(@Observes ShutdownEvent event) {
+
+		if (connecting != null) {
+			connecting.cancel();
+		}
+		if (subscriber != null) {
+			subscriber.closeAndForget();
+		}
+	}
+
+	/**
+	 * Whether this node listens for changes. The local product state (search
+	 * index, write-behind stock, warmed caches) is then built by this listener
+	 * once it listens rather than at startup, see {@link LocalStateSynced}.
+	 */
+	public boolean isActive() {
+		return enabled && primaryConnectOptions.isConfigured();
+	}
+
+	private Counter notificationCounter(String outcome) {
+		return Counter.builder(NOTIFICATIONS).tag("outcome", outcome).register(registry);
+	}
+
+	/**
+	 * Called on the first LISTEN and again after every reconnect. Anything
+	 * written while this node was not listening (before the first LISTEN
+	 * included) can only be caught up by reloading all local product state, once
+	 * the trigger is known to notify.
+	 */
+	private void subscribed() {
+
+		boolean first = subscribed.compareAndSet(false, true);
+		if (first) {
+			Log.infof("Listening on %s for product changes, loading local product state", CHANNEL);
+		} else {
+			Log.infof("Reconnected to %s, flushing local product state", CHANNEL);
+			resyncs.increment();
+		}
+		enableNotifications()
+				.chain(productService::resyncLocalState)
+				.onFailure().retry().withBackOff(reconnectDelay, MAX_CONNECT_BACKOFF).atMost(RESYNC_ATTEMPTS)
+				.subscribe().with(
+						count -> {
+							Log.infof("Local product state loaded with %d products", count);
+							if (first) {
+								synced.fire(new LocalStateSynced(count));
+							}
+						},
+						failure -> Log.error("Failed to load local product state", failure));
+	}
+
+	/**
+	 * The trigger stays silent until a listening node switches notifications on,
+	 * so deployments without coherence never pay for NOTIFY.
+	 */
+	private Uni<Void> enableNotifications() {
+
+		return Uni.createFrom().deferred(() -> subscriber.actualConnection().query(ENABLE_NOTIFICATIONS).execute())
+				.onItem().invoke(rows -> {
+					if (rows.rowCount() > 0) {
+						Log.infof("Switched on %s notifications", CHANNEL);
+					}
+				})
+				.onFailure().invoke(failure -> Log.warnf("Failed to switch on %s notifications: %s", CHANNEL,
+						failure.getMessage()))
+				.onFailure().recoverWithNull()
+				.replaceWithVoid();
+	}
+
+	private void notified(String payload) {
+
+		ProductChangeNotification notification;
+		try {
+			notification = objectMapper.readValue(payload, ProductChangeNotification.class);
+		} catch (JsonProcessingException e) {
+			notification = null;
+		}
+		if (notification == null || notification.id() == null || notification.type() == null) {
+			invalidNotifications.increment();
+			Log.warnf("Ignoring malformed %s notification: %s", CHANNEL, payload);
+			return;
+		}
+		long id = notification.id();
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Product %d changed to version %d (%s)", id, notification.version(), notification.op());
+		}
+		productService.productChanged(notification.seq(), notification.type(), id, notification.version(),
+				notification.product()).subscribe().with(
+						stale -> (stale ? staleNotifications : currentNotifications).increment(),
+						failure -> Log.warnf("Failed to apply change of product %d: %s", id, failure.getMessage()));
+	}
+}
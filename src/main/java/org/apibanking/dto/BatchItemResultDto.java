@@ -0,0 +1,20 @@
+package org.apibanking.dto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@RegisterForReflection
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResultDto {
+
+	private int index;
+	private Long id;
+	private int status;
+	private String message;
+}
@@ -0,0 +1,21 @@
+package org.apibanking.dto;
+
+import java.util.List;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@RegisterForReflection
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResultDto {
+
+	private int succeeded;
+	private int failed;
+	private List<BatchItemResultDto> results;
+}
@@ -1,10 +1,12 @@
 package org.apibanking.dto;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+@RegisterForReflection
 @Getter
 @Setter
 @AllArgsConstructor
@@ -0,0 +1,27 @@
+package org.apibanking.dto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@RegisterForReflection
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChangeDto {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED, STOCK,
+		/** Events after the requested sequence are no longer buffered; reload the catalog. */
+		RESYNC
+	}
+
+	private long sequence;
+	private Type type;
+	private Long id;
+	/** Full product for CREATED and UPDATED, only id, quantity and version for STOCK. */
+	private ProductDto product;
+}
@@ -1,20 +1,23 @@
 package org.apibanking.dto;
 
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+@RegisterForReflection
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
-public class ProductDto {
+@Builder(toBuilder = true)
+public class ProductDto implements ProductSummary {
 	private Long id;
 	private String name;
 	private String description;
 	private Double price;
 	private Long quantity;
+	private Long version;
 }
@@ -0,0 +1,18 @@
+package org.apibanking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPageDto<T extends ProductSummary> {
+
+	private List<T> items;
+	private String nextCursor;
+}
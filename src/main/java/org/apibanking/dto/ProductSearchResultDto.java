@@ -0,0 +1,18 @@
+package org.apibanking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSearchResultDto {
+
+	private long total;
+	private List<ProductDto> items;
+}
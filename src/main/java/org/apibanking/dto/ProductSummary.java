@@ -0,0 +1,18 @@
+package org.apibanking.dto;
+
+/**
+ * Fields shared by full products and listing summaries: the id, every sort key
+ * and the version the listing ETag is derived from.
+ */
+public interface ProductSummary {
+
+	Long getId();
+
+	String getName();
+
+	Double getPrice();
+
+	Long getQuantity();
+
+	Long getVersion();
+}
@@ -0,0 +1,20 @@
+package org.apibanking.dto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@RegisterForReflection
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDto implements ProductSummary {
+	private Long id;
+	private String name;
+	private Double price;
+	private Long quantity;
+	private Long version;
+}
@@ -0,0 +1,16 @@
+package org.apibanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockCheckRequestDto {
+
+	private Long id;
+	private Long count;
+}
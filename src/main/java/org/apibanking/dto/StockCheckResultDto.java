@@ -0,0 +1,18 @@
+package org.apibanking.dto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@RegisterForReflection
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockCheckResultDto {
+
+	private boolean found;
+	private boolean available;
+}
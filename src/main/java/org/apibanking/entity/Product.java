@@ -3,16 +3,22 @@ package org.apibanking.entity;
 import io.quarkus.hibernate.reactive.panache.PanacheEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_product_price_id", columnList = "price, id"),
+		@Index(name = "idx_product_name_id", columnList = "name, id"),
+		@Index(name = "idx_product_quantity_id", columnList = "quantity, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class Product extends PanacheEntity {
 
 	@Column(nullable = false, length = 100)
@@ -26,4 +32,15 @@ public class Product extends PanacheEntity {
 
 	@Column(nullable = false)
 	private Long quantity;
+
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
+	public Product(String name, String description, Double price, Long quantity) {
+		this.name = name;
+		this.description = description;
+		this.price = price;
+		this.quantity = quantity;
+	}
 }
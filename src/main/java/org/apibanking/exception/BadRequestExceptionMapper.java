@@ -1,7 +1,11 @@
 package org.apibanking.exception;
 
+import static org.apibanking.metrics.MetricsConfiguration.ERROR_COUNTER;
+
 import org.apibanking.dto.ErrorResponse;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
@@ -9,6 +13,9 @@ import jakarta.ws.rs.ext.Provider;
 @Provider
 public class BadRequestExceptionMapper implements ExceptionMapper<BadRequestException> {
 
+	@Inject
+	MeterRegistry registry;
+
 //	@Override
 //	public Response toResponse(BadRequestException exception) {
 //		// Custom 400 response for InvalidProductIdException
@@ -17,6 +24,7 @@ public class BadRequestExceptionMapper implements ExceptionMapper<BadRequestExce
 	
 	@Override
     public Response toResponse(BadRequestException exception) {
+        registry.counter(ERROR_COUNTER, "mapper", getClass().getSimpleName()).increment();
         // Return a custom error message, not including the stack trace
         ErrorResponse errorResponse = new ErrorResponse(exception.getMessage());
         return Response.status(Response.Status.BAD_REQUEST)
@@ -0,0 +1,10 @@
+package org.apibanking.exception;
+
+public class ConflictException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package org.apibanking.exception;
+
+import static org.apibanking.metrics.MetricsConfiguration.ERROR_COUNTER;
+
+import org.apibanking.dto.ErrorResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+@Provider
+public class ConflictExceptionMapper implements ExceptionMapper<ConflictException> {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Override
+    public Response toResponse(ConflictException exception) {
+        registry.counter(ERROR_COUNTER, "mapper", getClass().getSimpleName()).increment();
+        // Custom 409 response when the request conflicts with the current product state
+        return Response.status(Response.Status.CONFLICT)
+                .entity(new ErrorResponse(exception.getMessage()))
+                .build();
+    }
+}
@@ -1,7 +1,11 @@
 package org.apibanking.exception;
 
+import static org.apibanking.metrics.MetricsConfiguration.ERROR_COUNTER;
+
 import org.apibanking.dto.ErrorResponse;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
@@ -9,8 +13,12 @@ import jakarta.ws.rs.ext.Provider;
 @Provider
 public class NotFoundExceptionMapper implements ExceptionMapper<NotFoundException> {
 
+    @Inject
+    MeterRegistry registry;
+
     @Override
     public Response toResponse(NotFoundException exception) {
+        registry.counter(ERROR_COUNTER, "mapper", getClass().getSimpleName()).increment();
         // Custom 404 response for ProductNotFoundException
         return Response.status(Response.Status.NOT_FOUND)
                 .entity(new ErrorResponse(exception.getMessage()))
@@ -0,0 +1,17 @@
+package org.apibanking.exception;
+
+public class OverloadedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterSeconds;
+
+	public OverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
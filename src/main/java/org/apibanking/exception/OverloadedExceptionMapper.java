@@ -0,0 +1,29 @@
+package org.apibanking.exception;
+
+import static org.apibanking.metrics.MetricsConfiguration.ERROR_COUNTER;
+
+import org.apibanking.dto.ErrorResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+@Provider
+public class OverloadedExceptionMapper implements ExceptionMapper<OverloadedException> {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Override
+    public Response toResponse(OverloadedException exception) {
+        registry.counter(ERROR_COUNTER, "mapper", getClass().getSimpleName()).increment();
+        // Custom 503 response telling the client when to retry a request that was shed
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, exception.getRetryAfterSeconds())
+                .entity(new ErrorResponse(exception.getMessage()))
+                .build();
+    }
+}
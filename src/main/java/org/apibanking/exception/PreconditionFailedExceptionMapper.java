@@ -0,0 +1,27 @@
+package org.apibanking.exception;
+
+import static org.apibanking.metrics.MetricsConfiguration.ERROR_COUNTER;
+
+import org.apibanking.dto.ErrorResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+@Provider
+public class PreconditionFailedExceptionMapper implements ExceptionMapper<PreconditionFailedException> {
+
+    @Inject
+    MeterRegistry registry;
+
+    @Override
+    public Response toResponse(PreconditionFailedException exception) {
+        registry.counter(ERROR_COUNTER, "mapper", getClass().getSimpleName()).increment();
+        // Custom 412 response when If-Match does not name the current product version
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity(new ErrorResponse(exception.getMessage()))
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package org.apibanking.health;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apibanking.coherence.LocalStateSynced;
+import org.apibanking.coherence.ProductCoherenceListener;
+import org.apibanking.service.ProductService;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.vertx.VertxContextSupport;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Optional startup warm-up of the product cache. When enabled, the products in
+ * {@code product.warmup.ids} (or the {@code product.warmup.top} most recently
+ * created ones) are loaded before {@code /q/health/ready} reports UP, so a new
+ * instance only receives traffic once its hottest reads are served from memory
+ * and the database session and pool have been exercised. With cross-node
+ * coherence the warm-up waits until the node listens for changes, so no write
+ * of another node can leave a warmed entry stale. A failed warm-up is logged
+ * and does not keep the instance unready.
+ */
+@Readiness
+@ApplicationScoped
+public class CacheWarmupCheck implements HealthCheck {
+
+	@ConfigProperty(name = "product.warmup.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@ConfigProperty(name = "product.warmup.ids")
+	Optional<List<Long>> ids;
+
+	@ConfigProperty(name = "product.warmup.top", defaultValue = "1000")
+	int top;
+
+	@Inject
+	ProductService productService;
+
+	@Inject
+	ProductCoherenceListener coherenceListener;
+
+	private volatile boolean done;
+	private volatile int warmed;
+
+	void warmUp(@Observes StartupEvent event) {
+
+		if (!enabled) {
+			done = true;
+			return;
+		}
+		if (!coherenceListener.isActive()) {
+			startWarmUp();
+		}
+	}
+
+	void warmUpOnceSynced(@Observes LocalStateSynced event) {
+
+		if (enabled) {
+			startWarmUp();
+		}
+	}
+
+	private void startWarmUp() {
+
+		long started = System.nanoTime();
+		VertxContextSupport.subscribe(() -> productService.warmCache(ids.orElse(List.of()), top).toMulti(),
+				subscription -> subscription.with(
+						count -> warmed = count,
+						failure -> {
+							Log.warn("Product cache warm-up failed, continuing with a cold cache", failure);
+							done = true;
+						},
+						() -> {
+							Log.infof("Product cache warmed with %d products in %d ms", warmed,
+									(System.nanoTime() - started) / 1_000_000);
+							done = true;
+						}));
+	}
+
+	@Override
+	public HealthCheckResponse call() {
+		return HealthCheckResponse.named("product-cache-warmup")
+				.status(done)
+				.withData("products", warmed)
+				.build();
+	}
+}
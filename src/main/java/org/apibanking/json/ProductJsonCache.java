@@ -0,0 +1,152 @@
+package org.apibanking.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductSummary;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Cache of each product's encoded JSON, on by default and switched off with
+ * {@code product.json.cache.enabled=false}. An entry is stamped with the
+ * version and quantity it was encoded from and is only reused for a product
+ * carrying the same stamp, so a write that raced the encoding can never be
+ * served. Writes also invalidate the entry to free it early.
+ * <p>
+ * Only single-product responses add entries, so the cache holds the products
+ * clients actually fetch one by one. Listing pages and the NDJSON export reuse
+ * those entries but never add their own, which would let one export sweep the
+ * whole catalog through the cache.
+ */
+@ApplicationScoped
+public class ProductJsonCache {
+
+	public static final String PRODUCT_JSON_CACHE = "product-json";
+
+	private static final byte[] EMPTY_ARRAY = { '[', ']' };
+
+	@ConfigProperty(name = "product.json.cache.enabled", defaultValue = "true")
+	boolean enabled;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	@CacheName(PRODUCT_JSON_CACHE)
+	Cache cache;
+
+	private ObjectWriter productWriter;
+
+	@PostConstruct
+	void init() {
+		productWriter = objectMapper.writerFor(ProductDto.class);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Encodes a product answered on its own and caches the result.
+	 */
+	public byte[] encodeAndCache(ProductDto product) throws IOException {
+		return encode(product, true);
+	}
+
+	/**
+	 * Encodes a product, reusing its cached JSON if there is any, without
+	 * adding an entry.
+	 */
+	public byte[] encode(ProductDto product) throws IOException {
+		return encode(product, false);
+	}
+
+	private byte[] encode(ProductDto product, boolean admit) throws IOException {
+		if (product.getId() == null || product.getVersion() == null) {
+			return productWriter.writeValueAsBytes(product);
+		}
+		CaffeineCache entries = cache.as(CaffeineCache.class);
+		CompletableFuture<EncodedProduct> cached = entries.getIfPresent(product.getId());
+		EncodedProduct encoded = cached == null ? null : cached.getNow(null);
+		if (encoded != null && encoded.matches(product)) {
+			return encoded.bytes();
+		}
+		byte[] bytes = productWriter.writeValueAsBytes(product);
+		if (admit) {
+			entries.put(product.getId(), CompletableFuture
+					.completedFuture(new EncodedProduct(product.getVersion(), product.getQuantity(), bytes)));
+		}
+		return bytes;
+	}
+
+	/**
+	 * Encodes a listing page. Full products reuse cached JSON where there is
+	 * any, summaries are encoded on every call.
+	 */
+	public byte[] encodeAll(List<? extends ProductSummary> products) throws IOException {
+		byte[][] elements = new byte[products.size()][];
+		for (int i = 0; i < elements.length; i++) {
+			ProductSummary product = products.get(i);
+			elements[i] = product instanceof ProductDto full ? encode(full) : objectMapper.writeValueAsBytes(product);
+		}
+		return toJsonArray(elements);
+	}
+
+	public void invalidate(Long id) {
+		if (enabled) {
+			cache.invalidate(id).subscribe().with(ignored -> { });
+		}
+	}
+
+	public void invalidateAll() {
+		if (enabled) {
+			cache.invalidateAll().subscribe().with(ignored -> { });
+		}
+	}
+
+	/**
+	 * Joins already encoded JSON values into one array with a single copy per
+	 * element.
+	 */
+	public static byte[] toJsonArray(byte[][] elements) {
+		if (elements.length == 0) {
+			return EMPTY_ARRAY;
+		}
+		int length = elements.length + 1;
+		for (byte[] element : elements) {
+			length += element.length;
+		}
+		byte[] array = new byte[length];
+		array[0] = '[';
+		int position = 1;
+		for (int i = 0; i < elements.length; i++) {
+			if (i > 0) {
+				array[position++] = ',';
+			}
+			System.arraycopy(elements[i], 0, array, position, elements[i].length);
+			position += elements[i].length;
+		}
+		array[position] = ']';
+		return array;
+	}
+
+	private record EncodedProduct(long version, Long quantity, byte[] bytes) {
+
+		boolean matches(ProductDto product) {
+			return version == product.getVersion() && Objects.equals(quantity, product.getQuantity());
+		}
+	}
+}
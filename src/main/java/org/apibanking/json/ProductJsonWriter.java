@@ -0,0 +1,55 @@
+package org.apibanking.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import org.apibanking.dto.ProductDto;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes a single product from {@link ProductJsonCache} when the cache is
+ * enabled; otherwise the Jackson writer handles it. Elements of the NDJSON
+ * export go through {@link #writeTo}, which reuses cached JSON without adding
+ * to the cache.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class ProductJsonWriter implements ServerMessageBodyWriter<ProductDto> {
+
+	@Inject
+	ProductJsonCache productJsonCache;
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target,
+			MediaType mediaType) {
+		return productJsonCache.isEnabled();
+	}
+
+	@Override
+	public void writeResponse(ProductDto product, Type genericType, ServerRequestContext context)
+			throws IOException {
+		context.serverResponse().end(productJsonCache.encodeAndCache(product));
+	}
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return productJsonCache.isEnabled();
+	}
+
+	@Override
+	public void writeTo(ProductDto product, Class<?> type, Type genericType, Annotation[] annotations,
+			MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+			throws IOException {
+		entityStream.write(productJsonCache.encode(product));
+	}
+}
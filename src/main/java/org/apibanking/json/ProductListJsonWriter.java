@@ -0,0 +1,69 @@
+package org.apibanking.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.List;
+
+import org.apibanking.dto.ProductSummary;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes product lists (listing and search pages) by joining the cached JSON of
+ * each product instead of encoding every field again, when
+ * {@link ProductJsonCache} is enabled. Products without cached JSON are encoded
+ * for the page only.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class ProductListJsonWriter implements ServerMessageBodyWriter<List<? extends ProductSummary>> {
+
+	@Inject
+	ProductJsonCache productJsonCache;
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target,
+			MediaType mediaType) {
+		return isProductList(genericType);
+	}
+
+	@Override
+	public void writeResponse(List<? extends ProductSummary> products, Type genericType,
+			ServerRequestContext context) throws IOException {
+		context.serverResponse().end(productJsonCache.encodeAll(products));
+	}
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return isProductList(genericType);
+	}
+
+	@Override
+	public void writeTo(List<? extends ProductSummary> products, Class<?> type, Type genericType,
+			Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+			OutputStream entityStream) throws IOException {
+		entityStream.write(productJsonCache.encodeAll(products));
+	}
+
+	private boolean isProductList(Type genericType) {
+		if (!productJsonCache.isEnabled() || !(genericType instanceof ParameterizedType list)) {
+			return false;
+		}
+		Type element = list.getActualTypeArguments()[0];
+		if (element instanceof WildcardType wildcard) {
+			element = wildcard.getUpperBounds()[0];
+		}
+		return element instanceof Class<?> type && ProductSummary.class.isAssignableFrom(type);
+	}
+}
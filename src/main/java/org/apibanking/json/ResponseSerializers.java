@@ -0,0 +1,44 @@
+package org.apibanking.json;
+
+import java.io.IOException;
+
+import org.apibanking.dto.ErrorResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import jakarta.inject.Singleton;
+
+/**
+ * Hand-written serializer for {@link ErrorResponse}, which the build-time Jackson
+ * serializers do not cover because it is only returned by exception mappers.
+ */
+@Singleton
+public class ResponseSerializers implements ObjectMapperCustomizer {
+
+	@Override
+	public void customize(ObjectMapper objectMapper) {
+		SimpleModule module = new SimpleModule("product-responses");
+		module.addSerializer(ErrorResponse.class, new ErrorResponseSerializer());
+		objectMapper.registerModule(module);
+	}
+
+	private static final class ErrorResponseSerializer extends StdSerializer<ErrorResponse> {
+
+		private ErrorResponseSerializer() {
+			super(ErrorResponse.class);
+		}
+
+		@Override
+		public void serialize(ErrorResponse error, JsonGenerator generator, SerializerProvider provider)
+				throws IOException {
+			generator.writeStartObject();
+			generator.writeStringField("message", error.getMessage());
+			generator.writeEndObject();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package org.apibanking.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+
+/**
+ * Sampled access log for the REST endpoints. Only a configurable fraction of
+ * requests is timed and logged, so the hot path pays nothing for the others.
+ */
+public class AccessLogFilter {
+
+	private static final Logger ACCESS_LOG = Logger.getLogger("org.apibanking.access");
+	private static final String START_PROPERTY = AccessLogFilter.class.getName() + ".start";
+
+	@ConfigProperty(name = "product.access-log.sample-rate", defaultValue = "0.01")
+	double sampleRate;
+
+	@ServerRequestFilter
+	public void sample(ContainerRequestContext requestContext) {
+		if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			requestContext.setProperty(START_PROPERTY, System.nanoTime());
+		}
+	}
+
+	@ServerResponseFilter
+	public void log(ContainerRequestContext requestContext, ContainerResponseContext responseContext,
+			SimpleResourceInfo resourceInfo) {
+		Object start = requestContext.getProperty(START_PROPERTY);
+		if (start == null || !ACCESS_LOG.isInfoEnabled()) {
+			return;
+		}
+		double latencyMs = (System.nanoTime() - (Long) start) / 1_000_000.0;
+		String endpoint = resourceInfo == null || resourceInfo.getResourceClass() == null ? "unmatched"
+				: resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getMethodName();
+		ACCESS_LOG.infof("endpoint=%s method=%s path=%s status=%d latency_ms=%.3f", endpoint,
+				requestContext.getMethod(), requestContext.getUriInfo().getPath(), responseContext.getStatus(),
+				latencyMs);
+	}
+}
@@ -0,0 +1,57 @@
+package org.apibanking.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Records the latency of individual database operations, from subscription
+ * until the query result (or failure) is delivered.
+ */
+@ApplicationScoped
+public class DbMetrics {
+
+	public static final String DB_OPERATION_TIMER = "product.db.operation";
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	@Inject
+	MeterRegistry registry;
+
+	public <T> Uni<T> timed(String operation, Uni<T> query) {
+		return Uni.createFrom().deferred(() -> {
+			Timer.Sample sample = Timer.start(registry);
+			return query.onTermination().invoke((item, failure, cancelled) -> sample
+					.stop(timer(operation, failure != null ? "failure" : cancelled ? "cancelled" : "success")));
+		});
+	}
+
+	/**
+	 * Blocking counterpart of {@link #timed(String, Uni)} for JDBC calls made on
+	 * the calling thread.
+	 */
+	public <T> T timedBlocking(String operation, Supplier<T> query) {
+		Timer.Sample sample = Timer.start(registry);
+		String outcome = "failure";
+		try {
+			T result = query.get();
+			outcome = "success";
+			return result;
+		} finally {
+			sample.stop(timer(operation, outcome));
+		}
+	}
+
+	private Timer timer(String operation, String outcome) {
+		return timers.computeIfAbsent(operation + ':' + outcome, key -> Timer.builder(DB_OPERATION_TIMER)
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.register(registry));
+	}
+}
@@ -0,0 +1,33 @@
+package org.apibanking.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+public class MetricsConfiguration {
+
+	public static final String RESOURCE_TIMER = "product.resource.request";
+	public static final String ERROR_COUNTER = "product.errors";
+
+	/**
+	 * Publishes percentile histograms for the endpoint, database and pool timers
+	 * so latency percentiles can be aggregated across instances in Prometheus.
+	 */
+	@Produces
+	@Singleton
+	public MeterFilter enableHistograms() {
+		return new MeterFilter() {
+			@Override
+			public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+				String name = id.getName();
+				if (name.startsWith("product.") || name.startsWith("http.server.requests")
+						|| name.endsWith("pool.queue.delay") || name.endsWith("pool.usage")) {
+					return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+				}
+				return config;
+			}
+		};
+	}
+}
@@ -0,0 +1,82 @@
+package org.apibanking.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Reports how long the process took to become ready and to serve its first
+ * request, together with its resident set size, both in the log and as gauges
+ * on {@code /q/metrics}. Meant for comparing JVM and native builds.
+ */
+@ApplicationScoped
+public class StartupMetrics {
+
+	public static final String STARTUP_TIMER = "product.startup.ready";
+	public static final String FIRST_REQUEST_TIMER = "product.startup.first-request";
+	public static final String RSS_GAUGE = "product.process.rss";
+
+	private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+	private final AtomicBoolean firstRequest = new AtomicBoolean(true);
+
+	@Inject
+	MeterRegistry registry;
+
+	void onStart(@Observes StartupEvent event) {
+		Gauge.builder(RSS_GAUGE, StartupMetrics::residentSetBytes).baseUnit("bytes").register(registry);
+		Duration ready = sinceProcessStart();
+		if (ready != null) {
+			registry.timer(STARTUP_TIMER).record(ready);
+			Log.infof("Ready %d ms after process start, RSS %d MB", ready.toMillis(), residentSetBytes() >> 20);
+		}
+	}
+
+	@ServerResponseFilter
+	public void firstResponse() {
+		if (firstRequest.get() && firstRequest.compareAndSet(true, false)) {
+			Duration served = sinceProcessStart();
+			if (served != null) {
+				registry.timer(FIRST_REQUEST_TIMER).record(served);
+				Log.infof("First request served %d ms after process start, RSS %d MB", served.toMillis(),
+						residentSetBytes() >> 20);
+			}
+		}
+	}
+
+	private static Duration sinceProcessStart() {
+		return ProcessHandle.current().info().startInstant()
+				.map(start -> Duration.between(start, Instant.now()))
+				.orElse(null);
+	}
+
+	/**
+	 * Resident set size read from {@code /proc/self/status}, or -1 where that is
+	 * not available.
+	 */
+	static long residentSetBytes() {
+		try {
+			for (String line : Files.readAllLines(PROC_STATUS)) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// not on Linux
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,87 @@
+package org.apibanking.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import io.quarkus.reactive.pg.client.PgPoolCreator;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.PoolOptions;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Connection and pool options of the default (primary) datasource, for the
+ * connections this application opens next to the Quarkus-managed pool. Quarkus
+ * hands them to this creator when it builds the default pool, with every host,
+ * the SSL, timeout, prepared statement cache and other settings of
+ * {@code quarkus.datasource.reactive.*} already applied, so the extra pools and
+ * connections match the default pool in everything but their size.
+ */
+@Singleton
+public class PrimaryConnectOptions implements PgPoolCreator {
+
+	@ConfigProperty(name = "quarkus.datasource.reactive.url")
+	Optional<String> url;
+
+	@Inject
+	Instance<Pool> defaultPool;
+
+	private volatile List<PgConnectOptions> connectOptions;
+	private volatile PoolOptions poolOptions;
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public PgPool create(Input input) {
+		connectOptions = input.pgConnectOptionsList().stream().map(PgConnectOptions::new).toList();
+		poolOptions = new PoolOptions(input.poolOptions());
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Default datasource pool: %d hosts, %d connections", connectOptions.size(),
+					poolOptions.getMaxSize());
+		}
+		return PgPool.pool(input.vertx(), input.pgConnectOptionsList(), input.poolOptions());
+	}
+
+	public boolean isConfigured() {
+		return url.isPresent();
+	}
+
+	/**
+	 * Options of every host of the default datasource, tried in turn.
+	 */
+	public List<PgConnectOptions> all() {
+		created();
+		return connectOptions;
+	}
+
+	/**
+	 * Options of the first host of the default datasource, for a single
+	 * dedicated connection.
+	 */
+	public PgConnectOptions get() {
+		return new PgConnectOptions(all().get(0));
+	}
+
+	/**
+	 * A copy of the pool options of the default datasource.
+	 */
+	public PoolOptions poolOptions() {
+		created();
+		return new PoolOptions(poolOptions);
+	}
+
+	private void created() {
+		if (connectOptions == null) {
+			// the options are only known once Quarkus has built the default pool
+			defaultPool.get().getDelegate();
+		}
+		if (connectOptions == null) {
+			throw new IllegalStateException("The default datasource pool was not built by " + getClass().getName());
+		}
+	}
+}
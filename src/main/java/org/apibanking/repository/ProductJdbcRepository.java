@@ -0,0 +1,276 @@
+package org.apibanking.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductSummaryDto;
+import org.apibanking.entity.Product;
+import org.apibanking.metrics.DbMetrics;
+
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Blocking JDBC counterpart of {@link ProductSqlRepository} and the Panache
+ * reads, used by the blocking service stack. Every method runs one statement on
+ * the calling thread, which is meant to be a virtual thread.
+ */
+@ApplicationScoped
+public class ProductJdbcRepository {
+
+	private static final String COLUMNS = "id, name, description, price, quantity, version";
+	private static final String SUMMARY_COLUMNS = "id, name, price, quantity, version";
+	private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM product WHERE id = ?";
+	private static final String INSERT = "INSERT INTO product (" + COLUMNS + ") "
+			+ "VALUES (nextval('product_seq'), ?, ?, ?, ?, 0) RETURNING " + COLUMNS;
+	private static final String UPDATE = "UPDATE product "
+			+ "SET name = ?, description = ?, price = ?, quantity = ?, version = version + 1 WHERE id = ?";
+	private static final String DELETE = "DELETE FROM product WHERE id = ?";
+	private static final String RESERVE_STOCK = "UPDATE product SET quantity = quantity - ?, version = version + 1 "
+			+ "WHERE id = ? AND quantity >= ? RETURNING quantity, version";
+	private static final String RELEASE_STOCK = "UPDATE product SET quantity = quantity + ?, version = version + 1 "
+			+ "WHERE id = ? RETURNING quantity, version";
+	private static final String FIND_QUANTITIES = "SELECT id, quantity FROM product WHERE id = ANY(?)";
+	private static final String EXISTS = "SELECT 1 FROM product WHERE id = ?";
+
+	@Inject
+	AgroalDataSource dataSource;
+
+	@Inject
+	DbMetrics dbMetrics;
+
+	public Product findById(Long id) {
+		return execute("findById", FIND_BY_ID, statement -> {
+			statement.setLong(1, id);
+			return firstProduct(statement);
+		});
+	}
+
+	/**
+	 * Same contract as
+	 * {@link ProductSqlRepository#findPage(String, boolean, Object, Long, int)}.
+	 */
+	public List<ProductDto> findPage(String column, boolean descending, Object afterValue, Long afterId,
+			int limit) {
+		return page("list", COLUMNS, column, descending, afterValue, afterId, limit,
+				ProductJdbcRepository::toProductDto);
+	}
+
+	/**
+	 * Same contract as
+	 * {@link ProductSqlRepository#findSummaryPage(String, boolean, Object, Long, int)}.
+	 */
+	public List<ProductSummaryDto> findSummaryPage(String column, boolean descending, Object afterValue,
+			Long afterId, int limit) {
+		return page("listSummary", SUMMARY_COLUMNS, column, descending, afterValue, afterId, limit,
+				ProductJdbcRepository::toProductSummaryDto);
+	}
+
+	private <T> List<T> page(String operation, String columns, String column, boolean descending,
+			Object afterValue, Long afterId, int limit, RowMapper<T> mapper) {
+		String direction = descending ? " DESC" : " ASC";
+		String comparison = descending ? " < " : " > ";
+		StringBuilder sql = new StringBuilder("SELECT " + columns + " FROM product");
+		if (afterId != null) {
+			sql.append(column.equals("id") ? " WHERE id" + comparison + "?"
+					: " WHERE (" + column + ", id)" + comparison + "(?, ?)");
+		}
+		sql.append(" ORDER BY ");
+		if (!column.equals("id")) {
+			sql.append(column).append(direction).append(", ");
+		}
+		sql.append("id").append(direction).append(" LIMIT ?");
+
+		return execute(operation, sql.toString(), statement -> {
+			int index = 1;
+			if (afterId != null) {
+				if (!column.equals("id")) {
+					statement.setObject(index++, afterValue);
+				}
+				statement.setLong(index++, afterId);
+			}
+			statement.setInt(index, limit);
+			List<T> items = new ArrayList<>(limit);
+			try (ResultSet rows = statement.executeQuery()) {
+				while (rows.next()) {
+					items.add(mapper.apply(rows));
+				}
+			}
+			return items;
+		});
+	}
+
+	public Product insert(Product product) {
+		return execute("persist", INSERT, statement -> {
+			bindColumns(statement, product);
+			return firstProduct(statement);
+		});
+	}
+
+	/**
+	 * Same contract as {@link ProductSqlRepository#update(Long, Long, Product)}.
+	 */
+	public Product update(Long id, Long expectedVersion, Product changes) {
+		String sql = UPDATE + (expectedVersion == null ? "" : " AND version = ?") + " RETURNING " + COLUMNS;
+		return execute("update", sql, statement -> {
+			bindColumns(statement, changes);
+			statement.setLong(5, id);
+			if (expectedVersion != null) {
+				statement.setLong(6, expectedVersion);
+			}
+			return firstProduct(statement);
+		});
+	}
+
+	/**
+	 * Same contract as {@link ProductSqlRepository#patch(Long, Long, Product)}.
+	 */
+	public Product patch(Long id, Long expectedVersion, Product changes) {
+		StringBuilder sql = new StringBuilder("UPDATE product SET ");
+		List<Object> params = new ArrayList<>();
+		appendColumn(sql, params, "name", changes.getName());
+		appendColumn(sql, params, "description", changes.getDescription());
+		appendColumn(sql, params, "price", changes.getPrice());
+		appendColumn(sql, params, "quantity", changes.getQuantity());
+		sql.append("version = version + 1 WHERE id = ?");
+		params.add(id);
+		if (expectedVersion != null) {
+			sql.append(" AND version = ?");
+			params.add(expectedVersion);
+		}
+		sql.append(" RETURNING ").append(COLUMNS);
+		return execute("patch", sql.toString(), statement -> {
+			for (int i = 0; i < params.size(); i++) {
+				statement.setObject(i + 1, params.get(i));
+			}
+			return firstProduct(statement);
+		});
+	}
+
+	public boolean delete(Long id) {
+		return execute("delete", DELETE, statement -> {
+			statement.setLong(1, id);
+			return statement.executeUpdate() > 0;
+		});
+	}
+
+	public StockLevel reserveStock(Long id, Long count) {
+		return execute("reserveStock", RESERVE_STOCK, statement -> {
+			statement.setLong(1, count);
+			statement.setLong(2, id);
+			statement.setLong(3, count);
+			return stockLevel(statement);
+		});
+	}
+
+	public StockLevel releaseStock(Long id, Long count) {
+		return execute("releaseStock", RELEASE_STOCK, statement -> {
+			statement.setLong(1, count);
+			statement.setLong(2, id);
+			return stockLevel(statement);
+		});
+	}
+
+	public Map<Long, Long> findQuantities(Collection<Long> ids) {
+		return execute("findQuantities", FIND_QUANTITIES, statement -> {
+			Array array = statement.getConnection().createArrayOf("bigint", ids.toArray());
+			statement.setArray(1, array);
+			Map<Long, Long> quantities = new HashMap<>();
+			try (ResultSet rows = statement.executeQuery()) {
+				while (rows.next()) {
+					quantities.put(rows.getLong("id"), rows.getLong("quantity"));
+				}
+			}
+			return quantities;
+		});
+	}
+
+	public boolean exists(Long id) {
+		return execute("exists", EXISTS, statement -> {
+			statement.setLong(1, id);
+			try (ResultSet rows = statement.executeQuery()) {
+				return rows.next();
+			}
+		});
+	}
+
+	private <T> T execute(String operation, String sql, StatementCallback<T> callback) {
+		return dbMetrics.timedBlocking(operation, () -> {
+			try (Connection connection = dataSource.getConnection();
+					PreparedStatement statement = connection.prepareStatement(sql)) {
+				return callback.apply(statement);
+			} catch (SQLException e) {
+				throw new IllegalStateException("Database operation " + operation + " failed", e);
+			}
+		});
+	}
+
+	private static void bindColumns(PreparedStatement statement, Product product) throws SQLException {
+		statement.setString(1, product.getName());
+		if (product.getDescription() == null) {
+			statement.setNull(2, Types.VARCHAR);
+		} else {
+			statement.setString(2, product.getDescription());
+		}
+		statement.setDouble(3, product.getPrice());
+		statement.setLong(4, product.getQuantity());
+	}
+
+	private static void appendColumn(StringBuilder sql, List<Object> params, String column, Object value) {
+		if (value != null) {
+			sql.append(column).append(" = ?, ");
+			params.add(value);
+		}
+	}
+
+	private static Product firstProduct(PreparedStatement statement) throws SQLException {
+		try (ResultSet rows = statement.executeQuery()) {
+			return rows.next() ? toProduct(rows) : null;
+		}
+	}
+
+	private static StockLevel stockLevel(PreparedStatement statement) throws SQLException {
+		try (ResultSet rows = statement.executeQuery()) {
+			return rows.next() ? new StockLevel(rows.getLong("quantity"), rows.getLong("version")) : null;
+		}
+	}
+
+	private static ProductDto toProductDto(ResultSet row) throws SQLException {
+		return new ProductDto(row.getLong("id"), row.getString("name"), row.getString("description"),
+				row.getDouble("price"), row.getLong("quantity"), row.getLong("version"));
+	}
+
+	private static ProductSummaryDto toProductSummaryDto(ResultSet row) throws SQLException {
+		return new ProductSummaryDto(row.getLong("id"), row.getString("name"), row.getDouble("price"),
+				row.getLong("quantity"), row.getLong("version"));
+	}
+
+	private static Product toProduct(ResultSet row) throws SQLException {
+		Product product = new Product(row.getString("name"), row.getString("description"), row.getDouble("price"),
+				row.getLong("quantity"));
+		product.id = row.getLong("id");
+		product.setVersion(row.getLong("version"));
+		return product;
+	}
+
+	@FunctionalInterface
+	private interface StatementCallback<T> {
+		T apply(PreparedStatement statement) throws SQLException;
+	}
+
+	@FunctionalInterface
+	private interface RowMapper<T> {
+		T apply(ResultSet row) throws SQLException;
+	}
+}
@@ -0,0 +1,317 @@
+package org.apibanking.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductSummaryDto;
+import org.apibanking.bulkhead.Bulkheads;
+import org.apibanking.entity.Product;
+import org.apibanking.metrics.DbMetrics;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Single-statement SQL operations on the product table that would otherwise
+ * need a read-modify-write through the Hibernate session. Each operation runs
+ * on the bulkhead configured for it; writes always go to the primary and reads
+ * through {@link ReadReplicaRouter}.
+ */
+@ApplicationScoped
+public class ProductSqlRepository {
+
+	private static final String RESERVE_STOCK = "UPDATE product SET quantity = quantity - $1, version = version + 1 "
+			+ "WHERE id = $2 AND quantity >= $1 RETURNING quantity, version";
+	private static final String RELEASE_STOCK = "UPDATE product SET quantity = quantity + $1, version = version + 1 "
+			+ "WHERE id = $2 RETURNING quantity, version";
+	private static final String APPLY_STOCK_DELTAS = "UPDATE product AS p "
+			+ "SET quantity = p.quantity + d.delta, version = p.version + 1 "
+			+ "FROM unnest($1::bigint[], $2::bigint[]) AS d(id, delta) "
+			+ "WHERE p.id = d.id AND p.quantity + d.delta >= 0 RETURNING p.id, p.quantity, p.version";
+	private static final String PRODUCT_COLUMNS = "id, name, description, price, quantity, version";
+	private static final String SUMMARY_COLUMNS = "id, name, price, quantity, version";
+	private static final String RETURNING_PRODUCT = " RETURNING id, name, description, price, quantity, version";
+	private static final String UPDATE = "UPDATE product "
+			+ "SET name = $1, description = $2, price = $3, quantity = $4, version = version + 1 WHERE id = $5";
+	private static final String UPDATE_IF_VERSION = UPDATE + " AND version = $6";
+	private static final String DELETE = "DELETE FROM product WHERE id = $1";
+	private static final String DELETE_ALL = "DELETE FROM product WHERE id = ANY($1) RETURNING id";
+	private static final String FIND_QUANTITIES = "SELECT id, quantity FROM product WHERE id = ANY($1)";
+	private static final String FIND_STOCK = "SELECT id, quantity, version FROM product WHERE id = ANY($1)";
+	private static final String EXISTS = "SELECT 1 FROM product WHERE id = $1";
+	private static final String FIND_BY_ID = "SELECT " + PRODUCT_COLUMNS + " FROM product WHERE id = $1";
+
+	@Inject
+	Bulkheads bulkheads;
+
+	@Inject
+	ReadReplicaRouter readRouter;
+
+	@Inject
+	DbMetrics dbMetrics;
+
+	/**
+	 * Decrements the stock of a product if at least {@code count} units are left.
+	 * Emits the remaining stock, or {@code null} if nothing was reserved.
+	 */
+	public Uni<StockLevel> reserveStock(Long id, Long count) {
+		return execute("reserveStock", RESERVE_STOCK, Tuple.of(count, id))
+				.onItem().transform(this::stockLevel);
+	}
+
+	/**
+	 * Increments the stock of a product. Emits the new stock, or {@code null} if
+	 * the product does not exist.
+	 */
+	public Uni<StockLevel> releaseStock(Long id, Long count) {
+		return execute("releaseStock", RELEASE_STOCK, Tuple.of(count, id))
+				.onItem().transform(this::stockLevel);
+	}
+
+	/**
+	 * Adds a signed quantity delta to each product in one statement and emits the
+	 * resulting stock of the products that were updated. Products that no longer
+	 * exist, or whose stock the delta would take below zero, are left unchanged
+	 * and absent from the emitted map.
+	 */
+	public Uni<Map<Long, StockLevel>> applyStockDeltas(Map<Long, Long> deltas) {
+		Long[] ids = deltas.keySet().toArray(new Long[0]);
+		Long[] amounts = new Long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			amounts[i] = deltas.get(ids[i]);
+		}
+		return execute("applyStockDeltas", APPLY_STOCK_DELTAS, Tuple.of(ids, amounts))
+				.onItem().transform(this::stockLevels);
+	}
+
+	/**
+	 * Reads one product mapped straight to a DTO, or {@code null} if it does not
+	 * exist.
+	 */
+	public Uni<ProductDto> findById(Long id) {
+		return read("findById", Set.of(id), FIND_BY_ID, Tuple.of(id))
+				.onItem().transform(rows -> rows.iterator().hasNext() ? toProductDto(rows.iterator().next()) : null);
+	}
+
+	/**
+	 * Reads one keyset page ordered by {@code column} and id, starting after the
+	 * given position when {@code afterId} is not {@code null}. Rows are mapped
+	 * straight to DTOs, without entities or a Hibernate session.
+	 */
+	public Uni<List<ProductDto>> findPage(String column, boolean descending, Object afterValue, Long afterId,
+			int limit) {
+		return page("list", PRODUCT_COLUMNS, column, descending, afterValue, afterId, limit,
+				ProductSqlRepository::toProductDto);
+	}
+
+	/**
+	 * Same as {@link #findPage(String, boolean, Object, Long, int)} without the
+	 * description column.
+	 */
+	public Uni<List<ProductSummaryDto>> findSummaryPage(String column, boolean descending, Object afterValue,
+			Long afterId, int limit) {
+		return page("listSummary", SUMMARY_COLUMNS, column, descending, afterValue, afterId, limit,
+				ProductSqlRepository::toProductSummaryDto);
+	}
+
+	/**
+	 * Same as {@link #findPage(String, boolean, Object, Long, int)}, run as its
+	 * own operation so that catalog exports can be given their own bulkhead.
+	 */
+	public Uni<List<ProductDto>> findStreamPage(String column, boolean descending, Object afterValue, Long afterId,
+			int limit) {
+		return page("stream", PRODUCT_COLUMNS, column, descending, afterValue, afterId, limit,
+				ProductSqlRepository::toProductDto);
+	}
+
+	private <T> Uni<List<T>> page(String operation, String columns, String column, boolean descending,
+			Object afterValue, Long afterId, int limit, Function<Row, T> mapper) {
+		String direction = descending ? " DESC" : " ASC";
+		String comparison = descending ? " < " : " > ";
+		StringBuilder sql = new StringBuilder("SELECT " + columns + " FROM product");
+		Tuple params = Tuple.tuple();
+		if (afterId != null) {
+			if (column.equals("id")) {
+				sql.append(" WHERE id").append(comparison).append("$1");
+			} else {
+				// row-value comparison so PostgreSQL can seek directly into the (column, id) index
+				sql.append(" WHERE (").append(column).append(", id)").append(comparison).append("($1, $2)");
+				params.addValue(afterValue);
+			}
+			params.addLong(afterId);
+		}
+		sql.append(" ORDER BY ");
+		if (!column.equals("id")) {
+			sql.append(column).append(direction).append(", ");
+		}
+		sql.append("id").append(direction).append(" LIMIT $").append(params.size() + 1);
+		params.addInteger(limit);
+
+		return dbMetrics.timed(operation, readRouter.read(bulkheads.forOperation(operation),
+				client -> client.preparedQuery(sql.toString()).execute(params)))
+				.onItem().transform(rows -> {
+					List<T> items = new ArrayList<>(rows.size());
+					rows.forEach(row -> items.add(mapper.apply(row)));
+					return items;
+				});
+	}
+
+	/**
+	 * Overwrites all columns of a product in one statement, only while it is
+	 * still at {@code expectedVersion} when one is given. Emits the updated
+	 * product, or {@code null} if no row matched.
+	 */
+	public Uni<Product> update(Long id, Long expectedVersion, Product changes) {
+		Tuple params = Tuple.of(changes.getName(), changes.getDescription(), changes.getPrice(), changes.getQuantity(),
+				id);
+		String sql = UPDATE;
+		if (expectedVersion != null) {
+			params.addLong(expectedVersion);
+			sql = UPDATE_IF_VERSION;
+		}
+		return execute("update", sql + RETURNING_PRODUCT, params)
+				.onItem().transform(this::firstProduct);
+	}
+
+	/**
+	 * Writes only the non-null columns of {@code changes}, with the same version
+	 * handling and result as {@link #update(Long, Long, Product)}.
+	 */
+	public Uni<Product> patch(Long id, Long expectedVersion, Product changes) {
+		StringBuilder sql = new StringBuilder("UPDATE product SET ");
+		Tuple params = Tuple.tuple();
+		appendColumn(sql, params, "name", changes.getName());
+		appendColumn(sql, params, "description", changes.getDescription());
+		appendColumn(sql, params, "price", changes.getPrice());
+		appendColumn(sql, params, "quantity", changes.getQuantity());
+		sql.append("version = version + 1 WHERE id = $").append(params.size() + 1);
+		params.addLong(id);
+		if (expectedVersion != null) {
+			sql.append(" AND version = $").append(params.size() + 1);
+			params.addLong(expectedVersion);
+		}
+		sql.append(RETURNING_PRODUCT);
+		return execute("patch", sql.toString(), params)
+				.onItem().transform(this::firstProduct);
+	}
+
+	/**
+	 * Deletes a product in one statement and emits whether it existed.
+	 */
+	public Uni<Boolean> delete(Long id) {
+		return execute("delete", DELETE, Tuple.of(id))
+				.onItem().transform(rows -> rows.rowCount() > 0);
+	}
+
+	/**
+	 * Deletes all products with the given ids in one statement and emits the ids
+	 * that were actually deleted.
+	 */
+	public Uni<Set<Long>> deleteAll(Collection<Long> ids) {
+		return execute("deleteAll", DELETE_ALL, Tuple.of(ids.toArray(new Long[0])))
+				.onItem().transform(rows -> {
+					Set<Long> deleted = new HashSet<>();
+					rows.forEach(row -> deleted.add(row.getLong("id")));
+					return deleted;
+				});
+	}
+
+	/**
+	 * Reads the stock of all given products in one query. Ids without a product
+	 * are absent from the emitted map.
+	 */
+	public Uni<Map<Long, Long>> findQuantities(Collection<Long> ids) {
+		return read("findQuantities", ids, FIND_QUANTITIES, Tuple.of(ids.toArray(new Long[0])))
+				.onItem().transform(this::quantities);
+	}
+
+	/**
+	 * Reads the stock and version of all given products from the primary, for
+	 * callers that base a write on the result. Ids without a product are absent
+	 * from the emitted map.
+	 */
+	public Uni<Map<Long, StockLevel>> findPrimaryStock(Collection<Long> ids) {
+		return execute("findPrimaryStock", FIND_STOCK, Tuple.of(ids.toArray(new Long[0])))
+				.onItem().transform(this::stockLevels);
+	}
+
+	private Map<Long, StockLevel> stockLevels(RowSet<Row> rows) {
+		Map<Long, StockLevel> levels = new HashMap<>();
+		rows.forEach(row -> levels.put(row.getLong("id"),
+				new StockLevel(row.getLong("quantity"), row.getLong("version"))));
+		return levels;
+	}
+
+	private Map<Long, Long> quantities(RowSet<Row> rows) {
+		Map<Long, Long> quantities = new HashMap<>();
+		rows.forEach(row -> quantities.put(row.getLong("id"), row.getLong("quantity")));
+		return quantities;
+	}
+
+	public Uni<Boolean> exists(Long id) {
+		return execute("exists", EXISTS, Tuple.of(id))
+				.onItem().transform(rows -> rows.rowCount() > 0);
+	}
+
+	/**
+	 * Runs a statement on the primary, on the bulkhead configured for
+	 * {@code operation}.
+	 */
+	private Uni<RowSet<Row>> execute(String operation, String sql, Tuple params) {
+		return dbMetrics.timed(operation,
+				bulkheads.forOperation(operation).execute(client -> client.preparedQuery(sql).execute(params)));
+	}
+
+	private Uni<RowSet<Row>> read(String operation, Collection<Long> ids, String sql, Tuple params) {
+		return dbMetrics.timed(operation, readRouter.read(bulkheads.forOperation(operation), ids,
+				client -> client.preparedQuery(sql).execute(params)));
+	}
+
+	private StockLevel stockLevel(RowSet<Row> rows) {
+		if (!rows.iterator().hasNext()) {
+			return null;
+		}
+		Row row = rows.iterator().next();
+		return new StockLevel(row.getLong("quantity"), row.getLong("version"));
+	}
+
+	private static void appendColumn(StringBuilder sql, Tuple params, String column, Object value) {
+		if (value != null) {
+			sql.append(column).append(" = $").append(params.size() + 1).append(", ");
+			params.addValue(value);
+		}
+	}
+
+	private Product firstProduct(RowSet<Row> rows) {
+		return rows.iterator().hasNext() ? toProduct(rows.iterator().next()) : null;
+	}
+
+	private static ProductDto toProductDto(Row row) {
+		return new ProductDto(row.getLong("id"), row.getString("name"), row.getString("description"),
+				row.getDouble("price"), row.getLong("quantity"), row.getLong("version"));
+	}
+
+	private static ProductSummaryDto toProductSummaryDto(Row row) {
+		return new ProductSummaryDto(row.getLong("id"), row.getString("name"), row.getDouble("price"),
+				row.getLong("quantity"), row.getLong("version"));
+	}
+
+	private Product toProduct(Row row) {
+		Product product = new Product(row.getString("name"), row.getString("description"), row.getDouble("price"),
+				row.getLong("quantity"));
+		product.id = row.getLong("id");
+		product.setVersion(row.getLong("version"));
+		return product;
+	}
+}
@@ -0,0 +1,234 @@
+package org.apibanking.repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apibanking.bulkhead.Bulkhead;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.logging.Log;
+import io.quarkus.reactive.datasource.ReactiveDataSource;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * Sends product reads to the read-only {@code replica} datasource when
+ * {@code product.replica.enabled} is set. Reads of a product written by this
+ * node within the last {@code product-recent-writes} expiry stay on the primary,
+ * so a client always reads back its own writes even while the replica lags.
+ * Listings cannot tell which products they will return, so for the same window
+ * after any write of this node they stay on the primary as a whole; a node that
+ * writes continuously therefore serves its listings from the primary.
+ * With {@code product.replica.hedge.enabled} a read that is still waiting on
+ * the replica after its p95 latency is sent to the primary as well, and the
+ * first answer wins. A read only fails once both have failed; a replica that
+ * fails before the hedge is sent falls back to the primary instead.
+ */
+@ApplicationScoped
+public class ReadReplicaRouter {
+
+	public static final String REPLICA = "replica";
+	public static final String RECENT_WRITES_CACHE = "product-recent-writes";
+	public static final String REPLICA_READ_TIMER = "product.replica.read";
+	public static final String ROUTED_READS = "product.replica.routed";
+
+	private static final double HEDGE_PERCENTILE = 0.95;
+	private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	@ConfigProperty(name = "product.replica.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@ConfigProperty(name = "product.replica.hedge.enabled", defaultValue = "false")
+	boolean hedgeEnabled;
+
+	@ConfigProperty(name = "product.replica.hedge.min-delay", defaultValue = "5ms")
+	Duration hedgeMinDelay;
+
+	@ConfigProperty(name = "quarkus.cache.caffeine.\"" + RECENT_WRITES_CACHE + "\".expire-after-write",
+			defaultValue = "2s")
+	Duration recentWriteWindow;
+
+	@Inject
+	@ReactiveDataSource(REPLICA)
+	Instance<Pool> replicas;
+
+	@Inject
+	@CacheName(RECENT_WRITES_CACHE)
+	Cache recentWrites;
+
+	@Inject
+	MeterRegistry registry;
+
+	private Pool replica;
+	private Timer replicaReads;
+	private Counter primaryRoutes;
+	private Counter replicaRoutes;
+	private Counter hedgedRoutes;
+	private Counter fallbackRoutes;
+	private volatile long hedgeDelayNanos;
+	private volatile long hedgeDelayRefreshAt;
+	private volatile long lastWriteAt;
+	private volatile boolean written;
+
+	@PostConstruct
+	void init() {
+		if (!enabled) {
+			return;
+		}
+		if (!replicas.isResolvable()) {
+			throw new IllegalStateException("product.replica.enabled is set but no reactive datasource named '"
+					+ REPLICA + "' is configured (quarkus.datasource.\"" + REPLICA + "\".db-kind)");
+		}
+		replica = replicas.get();
+		replicaReads = Timer.builder(REPLICA_READ_TIMER)
+				.publishPercentiles(HEDGE_PERCENTILE)
+				.register(registry);
+		primaryRoutes = routeCounter("primary");
+		replicaRoutes = routeCounter("replica");
+		hedgedRoutes = routeCounter("hedged");
+		fallbackRoutes = routeCounter("fallback");
+		hedgeDelayNanos = hedgeMinDelay.toNanos();
+		hedgeDelayRefreshAt = System.nanoTime();
+		Log.infof("Product reads routed to the %s datasource, hedging %s", REPLICA,
+				hedgeEnabled ? "enabled" : "disabled");
+	}
+
+	private Counter routeCounter(String route) {
+		return Counter.builder(ROUTED_READS).tag("route", route).register(registry);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Marks a product as written so that its reads, and listings, stay on the
+	 * primary until the replica has caught up.
+	 */
+	public void written(Long id) {
+		if (enabled && id != null) {
+			recentWrites.as(CaffeineCache.class).put(id, CompletableFuture.completedFuture(Boolean.TRUE));
+			lastWriteAt = System.nanoTime();
+			written = true;
+		}
+	}
+
+	/**
+	 * Runs a read that is not tied to particular products, such as a listing
+	 * page, on the replica, or on the primary if this node wrote any product
+	 * recently. Reads that stay on the primary use its {@code primary} bulkhead.
+	 */
+	public <T> Uni<T> read(Bulkhead primary, Function<SqlClient, Uni<T>> query) {
+		if (!enabled) {
+			return primary.execute(query);
+		}
+		if (written && System.nanoTime() - lastWriteAt < recentWriteWindow.toNanos()) {
+			primaryRoutes.increment();
+			return primary.execute(query);
+		}
+		return replicaRead(primary, query);
+	}
+
+	/**
+	 * Runs a read of the given products on the replica, or on the primary if any
+	 * of them was written recently.
+	 */
+	public <T> Uni<T> read(Bulkhead primary, Collection<Long> ids, Function<SqlClient, Uni<T>> query) {
+		if (!enabled) {
+			return primary.execute(query);
+		}
+		CaffeineCache writes = recentWrites.as(CaffeineCache.class);
+		for (Long id : ids) {
+			if (writes.getIfPresent(id) != null) {
+				primaryRoutes.increment();
+				return primary.execute(query);
+			}
+		}
+		return replicaRead(primary, query);
+	}
+
+	private <T> Uni<T> replicaRead(Bulkhead primary, Function<SqlClient, Uni<T>> query) {
+		replicaRoutes.increment();
+		Uni<T> fromReplica = Uni.createFrom().deferred(() -> {
+			long started = System.nanoTime();
+			return query.apply(replica).onTermination().invoke(
+					() -> replicaReads.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+		});
+		if (!hedgeEnabled) {
+			return fromReplica.onFailure().recoverWithUni(failure -> fallback(primary, query, failure));
+		}
+		// the primary is queried once, by whichever of the hedge and the fallback comes first
+		AtomicBoolean primaryStarted = new AtomicBoolean();
+		AtomicInteger failures = new AtomicInteger();
+		Uni<T> replicaOrFallback = fromReplica.onFailure().recoverWithUni(
+				failure -> primaryStarted.compareAndSet(false, true)
+						? fallback(primary, query, failure)
+						: lastFailure(failures, failure));
+		Uni<T> fromPrimary = Uni.createFrom().voidItem()
+				.onItem().delayIt().by(Duration.ofNanos(hedgeDelayNanos()))
+				.onItem().transformToUni(ignored -> {
+					if (!primaryStarted.compareAndSet(false, true)) {
+						return Uni.createFrom().<T>nothing();
+					}
+					hedgedRoutes.increment();
+					return primary.execute(query).onFailure().recoverWithUni(failure -> lastFailure(failures, failure));
+				});
+		// any() wraps the failure, unwrap it so exception mappers see the original
+		return Uni.combine().any().of(replicaOrFallback, fromPrimary)
+				.onFailure(CompletionException.class).transform(Throwable::getCause);
+	}
+
+	private <T> Uni<T> fallback(Bulkhead primary, Function<SqlClient, Uni<T>> query, Throwable failure) {
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Replica read failed, retrying on the primary: %s", failure.getMessage());
+		}
+		fallbackRoutes.increment();
+		return primary.execute(query);
+	}
+
+	/**
+	 * Fails a hedged read once both the replica and the primary have failed, and
+	 * otherwise leaves the answer to the one still running.
+	 */
+	private static <T> Uni<T> lastFailure(AtomicInteger failures, Throwable failure) {
+		return failures.incrementAndGet() == 2 ? Uni.createFrom().failure(failure) : Uni.createFrom().nothing();
+	}
+
+	/**
+	 * The observed p95 of replica reads, never below
+	 * {@code product.replica.hedge.min-delay} so a cold or idle timer does not
+	 * hedge every read. Recomputed at most once a second.
+	 */
+	long hedgeDelayNanos() {
+		long now = System.nanoTime();
+		if (now - hedgeDelayRefreshAt > 0) {
+			hedgeDelayRefreshAt = now + HEDGE_DELAY_REFRESH_NANOS;
+			long p95 = 0;
+			for (ValueAtPercentile percentile : replicaReads.takeSnapshot().percentileValues()) {
+				if (percentile.percentile() == HEDGE_PERCENTILE) {
+					p95 = (long) percentile.value(TimeUnit.NANOSECONDS);
+				}
+			}
+			hedgeDelayNanos = Math.max(hedgeMinDelay.toNanos(), p95);
+		}
+		return hedgeDelayNanos;
+	}
+}
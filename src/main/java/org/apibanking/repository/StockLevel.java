@@ -0,0 +1,7 @@
+package org.apibanking.repository;
+
+/**
+ * Stock of a product as stored, together with the version it was stored at.
+ */
+public record StockLevel(long quantity, long version) {
+}
@@ -0,0 +1,264 @@
+package org.apibanking.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductSearchResultDto;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * In-process inverted index over product names and descriptions. Terms live in
+ * sorted maps so a query token also matches every indexed term it prefixes, and
+ * prices live in a sorted map so range filters are a sub-map view rather than a
+ * scan. The index is fed by {@code ProductService} and never queries the
+ * database itself.
+ */
+@ApplicationScoped
+public class ProductSearchIndex {
+
+	private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+	private static final double NAME_EXACT = 3.0;
+	private static final double NAME_PREFIX = 2.0;
+	private static final double DESCRIPTION_EXACT = 1.0;
+	private static final double DESCRIPTION_PREFIX = 0.5;
+
+	private static final Comparator<ScoredProduct> RANKING = Comparator
+			.comparingDouble((ScoredProduct scored) -> -scored.score())
+			.thenComparing(scored -> scored.product().getId());
+
+	private final Map<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+	private final NavigableMap<String, Set<Long>> nameTerms = new ConcurrentSkipListMap<>();
+	private final NavigableMap<String, Set<Long>> descriptionTerms = new ConcurrentSkipListMap<>();
+	private final NavigableMap<Double, Set<Long>> prices = new ConcurrentSkipListMap<>();
+
+	public void index(ProductDto product) {
+		documents.compute(product.getId(), (id, previous) -> {
+			if (previous != null) {
+				if (isNewer(previous.product(), product)) {
+					return previous;
+				}
+				unindex(id, previous);
+			}
+			IndexedProduct indexed = new IndexedProduct(product, tokenize(product.getName()),
+					tokenize(product.getDescription()));
+			indexed.nameTerms().forEach(term -> postings(nameTerms, term).add(id));
+			indexed.descriptionTerms().forEach(term -> postings(descriptionTerms, term).add(id));
+			postings(prices, product.getPrice()).add(id);
+			return indexed;
+		});
+	}
+
+	/**
+	 * Used while the index is bootstrapped, so a row read by the loader never
+	 * overwrites a newer version indexed by a concurrent write.
+	 */
+	public void indexIfAbsent(ProductDto product) {
+		if (!documents.containsKey(product.getId())) {
+			index(product);
+		}
+	}
+
+	/**
+	 * Applies a stock change made outside the entity, ignoring it when the
+	 * indexed product is already at a newer version.
+	 */
+	public void updateStock(Long id, long quantity, long version) {
+		documents.computeIfPresent(id, (key, previous) -> {
+			ProductDto product = previous.product().toBuilder().quantity(quantity).version(version).build();
+			return isNewer(previous.product(), product) ? previous
+					: new IndexedProduct(product, previous.nameTerms(), previous.descriptionTerms());
+		});
+	}
+
+	public void remove(Long id) {
+		documents.computeIfPresent(id, (key, previous) -> {
+			unindex(key, previous);
+			return null;
+		});
+	}
+
+	public int size() {
+		return documents.size();
+	}
+
+	/**
+	 * Version of the indexed product, or {@code null} if it is not indexed.
+	 */
+	public Long version(Long id) {
+		IndexedProduct indexed = documents.get(id);
+		return indexed == null ? null : indexed.product().getVersion();
+	}
+
+	public Set<Long> ids() {
+		return Set.copyOf(documents.keySet());
+	}
+
+	/**
+	 * Every query token has to match a name or description term, either exactly
+	 * or as a prefix. Candidates come from the postings of the most selective
+	 * token and are then checked against the other tokens through their own
+	 * terms, so the cost follows the rarest token rather than the catalog size.
+	 * Matches are ranked by score, name hits weighing more than description hits
+	 * and exact terms more than prefixes, then by id. Without a query all
+	 * products passing the filters are returned in id order.
+	 */
+	public ProductSearchResultDto search(String query, Double minPrice, Double maxPrice, boolean inStockOnly,
+			int offset, int limit) {
+
+		Set<String> tokens = tokenize(query);
+		Collection<Long> candidates = tokens.isEmpty() ? priceCandidates(minPrice, maxPrice)
+				: termCandidates(tokens);
+
+		// keep only the best offset + limit matches instead of sorting every hit
+		int window = offset + limit;
+		PriorityQueue<ScoredProduct> top = new PriorityQueue<>(window + 1, RANKING.reversed());
+		int total = 0;
+		for (Long id : candidates) {
+			IndexedProduct indexed = documents.get(id);
+			if (indexed == null || !matches(indexed.product(), minPrice, maxPrice, inStockOnly)) {
+				continue;
+			}
+			double score = score(indexed, tokens);
+			if (score > 0 || tokens.isEmpty()) {
+				total++;
+				top.offer(new ScoredProduct(indexed.product(), score));
+				if (top.size() > window) {
+					top.poll();
+				}
+			}
+		}
+
+		List<ProductDto> page = top.stream()
+				.sorted(RANKING)
+				.skip(offset)
+				.map(ScoredProduct::product)
+				.toList();
+		return new ProductSearchResultDto(total, page);
+	}
+
+	private Collection<Long> termCandidates(Set<String> tokens) {
+		String rarest = null;
+		long fewest = Long.MAX_VALUE;
+		for (String token : tokens) {
+			long postings = postingCount(nameTerms, token) + postingCount(descriptionTerms, token);
+			if (postings < fewest) {
+				rarest = token;
+				fewest = postings;
+			}
+		}
+		Set<Long> candidates = new HashSet<>();
+		prefixed(nameTerms, rarest).values().forEach(candidates::addAll);
+		prefixed(descriptionTerms, rarest).values().forEach(candidates::addAll);
+		return candidates;
+	}
+
+	private double score(IndexedProduct indexed, Set<String> tokens) {
+		double total = 0;
+		for (String token : tokens) {
+			double score = match(indexed.nameTerms(), token, NAME_EXACT, NAME_PREFIX)
+					+ match(indexed.descriptionTerms(), token, DESCRIPTION_EXACT, DESCRIPTION_PREFIX);
+			if (score == 0) {
+				return 0;
+			}
+			total += score;
+		}
+		return total;
+	}
+
+	private static double match(Set<String> terms, String token, double exactScore, double prefixScore) {
+		if (terms.contains(token)) {
+			return exactScore;
+		}
+		for (String term : terms) {
+			if (term.startsWith(token)) {
+				return prefixScore;
+			}
+		}
+		return 0;
+	}
+
+	private static long postingCount(NavigableMap<String, Set<Long>> terms, String token) {
+		long count = 0;
+		for (Set<Long> ids : prefixed(terms, token).values()) {
+			count += ids.size();
+		}
+		return count;
+	}
+
+	private static NavigableMap<String, Set<Long>> prefixed(NavigableMap<String, Set<Long>> terms, String token) {
+		return terms.subMap(token, true, token + Character.MAX_VALUE, true);
+	}
+
+	private Collection<Long> priceCandidates(Double minPrice, Double maxPrice) {
+		if (minPrice == null && maxPrice == null) {
+			return documents.keySet();
+		}
+		NavigableMap<Double, Set<Long>> range = prices;
+		if (minPrice != null) {
+			range = range.tailMap(minPrice, true);
+		}
+		if (maxPrice != null) {
+			range = range.headMap(maxPrice, true);
+		}
+		return range.values().stream().flatMap(Set::stream).toList();
+	}
+
+	private boolean matches(ProductDto product, Double minPrice, Double maxPrice, boolean inStockOnly) {
+		return (minPrice == null || product.getPrice() >= minPrice)
+				&& (maxPrice == null || product.getPrice() <= maxPrice)
+				&& (!inStockOnly || product.getQuantity() > 0);
+	}
+
+	private static boolean isNewer(ProductDto indexed, ProductDto candidate) {
+		return indexed.getVersion() != null && candidate.getVersion() != null
+				&& indexed.getVersion() > candidate.getVersion();
+	}
+
+	private void unindex(Long id, IndexedProduct indexed) {
+		// empty posting sets are left in place so concurrent writers never race on their removal
+		indexed.nameTerms().forEach(term -> removePosting(nameTerms, term, id));
+		indexed.descriptionTerms().forEach(term -> removePosting(descriptionTerms, term, id));
+		removePosting(prices, indexed.product().getPrice(), id);
+	}
+
+	private static <K> void removePosting(Map<K, Set<Long>> index, K key, Long id) {
+		Set<Long> ids = index.get(key);
+		if (ids != null) {
+			ids.remove(id);
+		}
+	}
+
+	private static <K> Set<Long> postings(Map<K, Set<Long>> index, K key) {
+		return index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+	}
+
+	static Set<String> tokenize(String text) {
+		if (text == null || text.isBlank()) {
+			return Set.of();
+		}
+		return Arrays.stream(SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+				.filter(token -> !token.isEmpty())
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	private record IndexedProduct(ProductDto product, Set<String> nameTerms, Set<String> descriptionTerms) {
+	}
+
+	private record ScoredProduct(ProductDto product, double score) {
+	}
+}
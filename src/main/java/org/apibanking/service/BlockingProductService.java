@@ -0,0 +1,189 @@
+package org.apibanking.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apibanking.dto.ProductChangeDto;
+import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductPageDto;
+import org.apibanking.dto.ProductSummary;
+import org.apibanking.dto.StockCheckRequestDto;
+import org.apibanking.dto.StockCheckResultDto;
+import org.apibanking.dto.StockDto;
+import org.apibanking.dto.StockReservationDto;
+import org.apibanking.entity.Product;
+import org.apibanking.exception.ConflictException;
+import org.apibanking.exception.NotFoundException;
+import org.apibanking.exception.PreconditionFailedException;
+import org.apibanking.repository.ProductJdbcRepository;
+import org.apibanking.repository.StockLevel;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Blocking implementation of the {@link ProductService} database operations on
+ * plain JDBC, selected with {@code product.service.stack=blocking}. Validation,
+ * error messages, the product cache, search index, change feed and stock
+ * write-behind are shared with {@link ProductService}, so both stacks answer
+ * identically.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "product.service.stack", stringValue = "blocking")
+public class BlockingProductService {
+
+	@Inject
+	ProductService productService;
+
+	@Inject
+	ProductJdbcRepository productJdbcRepository;
+
+	@Inject
+	StockWriteBehind stockWriteBehind;
+
+	@Inject
+	@CacheName(ProductService.PRODUCT_CACHE)
+	Cache productCache;
+
+	public ProductDto getProductById(Long id) {
+
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Attempting to fetch product with ID: %d", id);
+		}
+		productService.validateId(id);
+
+		ProductDto product = productCache.get(id, this::loadProduct).await().indefinitely();
+		return stockWriteBehind.isEnabled() ? stockWriteBehind.overlay(product) : product;
+	}
+
+	private ProductDto loadProduct(Long id) {
+		Product product = productJdbcRepository.findById(id);
+		if (product == null) {
+			throw new NotFoundException("Product not found with ID: " + id);
+		}
+		return productService.toProductDto(product);
+	}
+
+	public ProductPageDto<? extends ProductSummary> getAllProducts(boolean sortByPrice, String sortParam,
+			String orderParam, String after, int limit, boolean summary) {
+
+		ProductSort sort = productService.resolveSort(sortParam, sortByPrice);
+		boolean descending = productService.resolveDescending(orderParam);
+		productService.validateLimit(limit);
+		ProductCursor cursor = after == null || after.isBlank() ? null : ProductCursor.decode(after, sort, descending);
+
+		Object afterValue = cursor == null ? null : cursor.getValue();
+		Long afterId = cursor == null ? null : cursor.getId();
+		List<? extends ProductSummary> products = summary
+				? productJdbcRepository.findSummaryPage(sort.getField(), descending, afterValue, afterId, limit)
+				: productJdbcRepository.findPage(sort.getField(), descending, afterValue, afterId, limit);
+		return productService.toProductPage(products, sort, descending, limit);
+	}
+
+	public Product createProduct(ProductDto productDto) {
+
+		productService.validateProductDto(productDto);
+		Product product = productJdbcRepository.insert(productService.toProduct(productDto));
+		productService.productSaved(product, ProductChangeDto.Type.CREATED);
+		return product;
+	}
+
+	public Product updateProduct(Long id, ProductDto productDto, Long expectedVersion) {
+
+		productService.validateId(id);
+		productService.validateProductDto(productDto);
+		return updated(id, expectedVersion,
+				productJdbcRepository.update(id, expectedVersion, productService.toProduct(productDto)));
+	}
+
+	public Product patchProduct(Long id, ProductDto productDto, Long expectedVersion) {
+
+		productService.validateId(id);
+		productService.validatePatch(productDto);
+		return updated(id, expectedVersion,
+				productJdbcRepository.patch(id, expectedVersion, productService.toProduct(productDto)));
+	}
+
+	private Product updated(Long id, Long expectedVersion, Product product) {
+		if (product != null) {
+			productService.productSaved(product, ProductChangeDto.Type.UPDATED);
+			return product;
+		}
+		if (expectedVersion == null || !productJdbcRepository.exists(id)) {
+			throw new NotFoundException("Product with ID " + id + " not found");
+		}
+		throw new PreconditionFailedException("Product with ID " + id + " is no longer at version " + expectedVersion);
+	}
+
+	public void deleteProduct(Long id) {
+
+		productService.validateId(id);
+		if (!productJdbcRepository.delete(id)) {
+			throw new NotFoundException("Product with ID " + id + " not found");
+		}
+		productService.productDeleted(id);
+		productCache.invalidate(id).await().indefinitely();
+	}
+
+	public StockDto checkStockAvailability(Long id, Long count) {
+
+		productService.validateId(id);
+		Long quantity = productService.knownQuantity(id);
+		if (quantity == null) {
+			quantity = productJdbcRepository.findQuantities(Set.of(id)).get(id);
+		}
+		return productService.toStockDto(id, quantity, count);
+	}
+
+	public Map<Long, StockCheckResultDto> checkStockAvailability(List<StockCheckRequestDto> lines) {
+
+		Map<Long, Long> requested = productService.toRequestedStock(lines);
+		return productService.toStockCheckResults(requested,
+				productJdbcRepository.findQuantities(requested.keySet()));
+	}
+
+	public StockReservationDto reserveStock(Long id, Long count) {
+
+		productService.validateId(id);
+		productService.validateCount(count);
+		if (stockWriteBehind.isEnabled()) {
+			return productService.stockReserved(id, stockWriteBehind.reserve(id, count).await().indefinitely());
+		}
+
+		StockLevel stock = productJdbcRepository.reserveStock(id, count);
+		stockUpdated(id, stock);
+		if (stock != null) {
+			return new StockReservationDto(id, stock.quantity());
+		}
+		if (!productJdbcRepository.exists(id)) {
+			throw new NotFoundException("Product with ID " + id + " not found");
+		}
+		throw new ConflictException("Insufficient stock for product with ID " + id);
+	}
+
+	public StockReservationDto releaseStock(Long id, Long count) {
+
+		productService.validateId(id);
+		productService.validateCount(count);
+		if (stockWriteBehind.isEnabled()) {
+			return productService.stockReserved(id, stockWriteBehind.release(id, count).await().indefinitely());
+		}
+
+		StockLevel stock = productJdbcRepository.releaseStock(id, count);
+		stockUpdated(id, stock);
+		if (stock == null) {
+			throw new NotFoundException("Product with ID " + id + " not found");
+		}
+		return new StockReservationDto(id, stock.quantity());
+	}
+
+	private void stockUpdated(Long id, StockLevel stock) {
+		productCache.invalidate(id).await().indefinitely();
+		productService.stockChanged(id, stock);
+	}
+}
@@ -0,0 +1,43 @@
+package org.apibanking.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Coalesces concurrent reads of the same key: while a read is in flight, later
+ * callers subscribe to the same pending {@link Uni} instead of starting their
+ * own. The entry is dropped as soon as the read terminates, so nothing is
+ * cached beyond the lifetime of the original call.
+ */
+public class InFlightRequests<K, V> {
+
+	public static final String COALESCING_COUNTER = "product.requests.coalescing";
+
+	private final Map<K, Uni<V>> inFlight = new ConcurrentHashMap<>();
+	private final Counter executed;
+	private final Counter joined;
+
+	public InFlightRequests(String operation, MeterRegistry registry) {
+		this.executed = registry.counter(COALESCING_COUNTER, "operation", operation, "outcome", "executed");
+		this.joined = registry.counter(COALESCING_COUNTER, "operation", operation, "outcome", "joined");
+	}
+
+	public Uni<V> execute(K key, Supplier<Uni<V>> read) {
+		return Uni.createFrom().deferred(() -> {
+			boolean[] started = new boolean[1];
+			Uni<V> shared = inFlight.computeIfAbsent(key, k -> {
+				started[0] = true;
+				return read.get()
+						.onTermination().invoke(() -> inFlight.remove(k))
+						.memoize().indefinitely();
+			});
+			(started[0] ? executed : joined).increment();
+			return shared;
+		});
+	}
+}
@@ -0,0 +1,58 @@
+package org.apibanking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+import org.apibanking.dto.ProductSummary;
+import org.apibanking.exception.BadRequestException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque keyset position for paginated product listings. Encodes the sort key
+ * of the last returned row together with its id, so the next page can be read
+ * with a range predicate instead of an offset.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+
+	private final ProductSort sort;
+	private final boolean descending;
+	private final Object value;
+	private final Long id;
+
+	public static ProductCursor of(ProductSummary product, ProductSort sort, boolean descending) {
+		return new ProductCursor(sort, descending, sort.extract(product), product.getId());
+	}
+
+	public String encode() {
+		String raw = prefix(sort, descending) + id + (value == null ? "" : ":" + value);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static ProductCursor decode(String token, ProductSort sort, boolean descending) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String prefix = prefix(sort, descending);
+			if (raw.startsWith(prefix)) {
+				String position = raw.substring(prefix.length());
+				if (sort == ProductSort.ID) {
+					return new ProductCursor(sort, descending, null, Long.valueOf(position));
+				}
+				int separator = position.indexOf(':');
+				return new ProductCursor(sort, descending, sort.parse(position.substring(separator + 1)),
+						Long.valueOf(position.substring(0, separator)));
+			}
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			// fall through to the bad request below
+		}
+		throw new BadRequestException("Invalid cursor.");
+	}
+
+	private static String prefix(ProductSort sort, boolean descending) {
+		return sort.name().toLowerCase(Locale.ROOT) + (descending ? ":desc:" : ":asc:");
+	}
+}
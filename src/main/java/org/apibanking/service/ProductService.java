@@ -1,139 +1,824 @@
 package org.apibanking.service;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
+import org.apibanking.dto.BatchItemResultDto;
+import org.apibanking.changes.ProductChangeFeed;
+import org.apibanking.coherence.ProductCoherenceListener;
+import org.apibanking.dto.BatchResultDto;
+import org.apibanking.dto.ProductChangeDto;
 import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.ProductPageDto;
+import org.apibanking.dto.ProductSearchResultDto;
+import org.apibanking.dto.ProductSummary;
+import org.apibanking.dto.ProductSummaryDto;
+import org.apibanking.dto.StockCheckRequestDto;
+import org.apibanking.dto.StockCheckResultDto;
 import org.apibanking.dto.StockDto;
+import org.apibanking.dto.StockReservationDto;
 import org.apibanking.entity.Product;
 import org.apibanking.exception.BadRequestException;
+import org.apibanking.exception.ConflictException;
 import org.apibanking.exception.NotFoundException;
+import org.apibanking.exception.PreconditionFailedException;
+import org.apibanking.json.ProductJsonCache;
+import org.apibanking.metrics.DbMetrics;
+import org.apibanking.repository.ProductSqlRepository;
+import org.apibanking.repository.ReadReplicaRouter;
+import org.apibanking.repository.StockLevel;
+import org.apibanking.search.ProductSearchIndex;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.StaleObjectStateException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
 import io.quarkus.hibernate.reactive.panache.Panache;
 import io.quarkus.logging.Log;
+import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.vertx.VertxContextSupport;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response.Status;
 
 @ApplicationScoped
 public class ProductService {
 
+	public static final String PRODUCT_CACHE = "product";
+
+	private static final int MAX_PAGE_SIZE = 1000;
+	private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+	@Inject
+	ProductSqlRepository productSqlRepository;
+
+	@Inject
+	DbMetrics dbMetrics;
+
+	@Inject
+	ProductSearchIndex searchIndex;
+
+	@Inject
+	ProductChangeFeed changeFeed;
+
+	@Inject
+	StockWriteBehind stockWriteBehind;
+
+	@Inject
+	ProductJsonCache productJsonCache;
+
+	@Inject
+	ReadReplicaRouter readRouter;
+
+	@Inject
+	ProductCoherenceListener coherenceListener;
+
+	@Inject
+	@CacheName(PRODUCT_CACHE)
+	Cache productCache;
+
+	@ConfigProperty(name = "product.stream.page-size", defaultValue = "500")
+	int streamPageSize;
+
+	@ConfigProperty(name = "product.batch.max-size", defaultValue = "1000")
+	int maxBatchSize;
+
+	@ConfigProperty(name = "product.stock.write-behind.flush-interval", defaultValue = "100ms")
+	Duration stockFlushInterval;
+
+	@Inject
+	MeterRegistry registry;
+
+	private Cancellable stockFlusher;
+	private InFlightRequests<Long, Long> stockReads;
+	private InFlightRequests<PageKey, ProductPageDto<? extends ProductSummary>> pageReads;
+
+	@PostConstruct
+	void init() {
+		stockReads = new InFlightRequests<>("checkStockAvailability", registry);
+		pageReads = new InFlightRequests<>("getAllProducts", registry);
+	}
+
 	public Uni<ProductDto> getProductById(Long id) {
         
-		Log.infof("Attempting to fetch product with ID: %d", id);
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Attempting to fetch product with ID: %d", id);
+		}
 		validateId(id);
 
-		Uni<Product> uniProduct = Product.findById(id);
-		return uniProduct.onItem().transform(product -> {
+		// the cache already joins concurrent loads of the same id
+		Uni<ProductDto> product = productCache.getAsync(id, this::loadProduct);
+		return stockWriteBehind.isEnabled() ? product.onItem().transform(stockWriteBehind::overlay) : product;
+	}
+
+	/**
+	 * Whether reads of a product carry stock from the write-behind view, which
+	 * changes without a new version until it is flushed.
+	 */
+	public boolean isStockOverlaid(Long id) {
+		return stockWriteBehind.isEnabled() && stockWriteBehind.quantity(id) != null;
+	}
+
+	private Uni<ProductDto> loadProduct(Long id) {
+
+		return productSqlRepository.findById(id).onItem().transform(product -> {
 			if (product != null) {
 				
-				Log.infof("Product with ID %d successfully retrieved.", id);
-				return toProductDto(product);
+				if (Log.isDebugEnabled()) {
+					Log.debugf("Product with ID %d successfully retrieved.", id);
+				}
+				return product;
 			} else {
 				
-				Log.warnf("Product with ID %d not found in the database.", id);
+				if (Log.isDebugEnabled()) {
+					Log.debugf("Product with ID %d not found in the database.", id);
+				}
 				throw new NotFoundException("Product not found with ID: " + id);
 			}
 		});
 	}
 	
-	public Uni<List<ProductDto>> getAllProducts(boolean sortByPrice) {
+	/**
+	 * Reads one listing page. With {@code summary} the page carries only the
+	 * listing fields and the description column is never read.
+	 */
+	public Uni<ProductPageDto<? extends ProductSummary>> getAllProducts(boolean sortByPrice, String sortParam,
+			String orderParam, String after, int limit, boolean summary) {
 		
-		Log.infof("Fetching all products, sortByPrice = %b", sortByPrice);
-		Uni<List<Product>> uniProducts;
+		ProductSort sort = resolveSort(sortParam, sortByPrice);
+		boolean descending = resolveDescending(orderParam);
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Fetching products, sort = %s, descending = %b, limit = %d, summary = %b", sort, descending,
+					limit, summary);
+		}
+		validateLimit(limit);
+		ProductCursor cursor = after == null || after.isBlank() ? null : ProductCursor.decode(after, sort, descending);
+
+		return pageReads.execute(new PageKey(sort, descending, after, limit, summary), () -> {
+			Uni<? extends List<? extends ProductSummary>> products = summary
+					? fetchSummaryPage(sort, descending, cursor, limit)
+					: fetchPage(sort, descending, cursor, limit);
+			return products.onItem().transform(items -> {
+				if (Log.isDebugEnabled()) {
+					Log.debugf("Found %d products", items.size());
+				}
+				return toProductPage(items, sort, descending, limit);
+			});
+		});
+	}
 
-		if (sortByPrice) {
-			uniProducts = Product.listAll(Sort.by("price"));
-		} else {
-			uniProducts = Product.listAll();
+	private record PageKey(ProductSort sort, boolean descending, String after, int limit, boolean summary) {
+	}
+
+	<T extends ProductSummary> ProductPageDto<T> toProductPage(List<T> products, ProductSort sort,
+			boolean descending, int limit) {
+		String nextCursor = products.size() < limit ? null
+				: ProductCursor.of(products.get(products.size() - 1), sort, descending).encode();
+		return new ProductPageDto<>(products, nextCursor);
+	}
+
+	public Multi<ProductDto> streamAllProducts(boolean sortByPrice, String sortParam, String orderParam) {
+
+		ProductSort sort = resolveSort(sortParam, sortByPrice);
+		boolean descending = resolveDescending(orderParam);
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Streaming all products, sort = %s, descending = %b", sort, descending);
 		}
-		
-		return uniProducts.onItem().transform(products -> {
-                    Log.infof("Found %d products", products.size());
-                    return products.stream()
-                                   .map(product -> toProductDto(product))
-                                   .toList();
-                });
+		AtomicReference<ProductCursor> cursor = new AtomicReference<>();
+
+		return Multi.createBy().repeating()
+				.uni(() -> {
+					ProductCursor after = cursor.get();
+					return productSqlRepository.findStreamPage(sort.getField(), descending,
+							after == null ? null : after.getValue(), after == null ? null : after.getId(),
+							streamPageSize);
+				})
+				.whilst(products -> {
+					if (products.isEmpty()) {
+						return false;
+					}
+					cursor.set(ProductCursor.of(products.get(products.size() - 1), sort, descending));
+					return products.size() == streamPageSize;
+				})
+				.onItem().<ProductDto>disjoint();
+	}
+
+	/**
+	 * Loads the given products, or the {@code top} most recently created ones
+	 * when no ids are given, into the product cache with a single query. Emits
+	 * the number of products cached.
+	 */
+	public Uni<Integer> warmCache(List<Long> ids, int top) {
+
+		return Panache.withSession(() -> dbMetrics.timed("warmup", ids.isEmpty()
+				? Product.<Product>findAll(Sort.descending("id")).page(Page.ofSize(top)).list()
+				: Product.<Product>list("id in ?1", ids)))
+				.onItem().transform(products -> {
+					products.forEach(product -> cacheProduct(toProductDto(product)));
+					return products.size();
+				});
+	}
+
+	public Multi<ProductChangeDto> streamChanges(Long since) {
+
+		if (since != null && since < 0) {
+			throw new BadRequestException("Since should be greater than or equal to 0.");
+		}
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Streaming product changes since %s", since);
+		}
+		return changeFeed.subscribe(since);
+	}
+
+	void buildSearchIndex(@Observes StartupEvent event) {
+
+		if (coherenceListener.isActive()) {
+			// built once this node listens for changes, see resyncLocalState()
+			return;
+		}
+		long started = System.nanoTime();
+		VertxContextSupport.subscribe(() -> streamAllProducts(false, null, null), subscription -> subscription.with(
+				searchIndex::indexIfAbsent,
+				failure -> Log.error("Failed to build the product search index", failure),
+				() -> Log.infof("Product search index built with %d products in %d ms", searchIndex.size(),
+						(System.nanoTime() - started) / 1_000_000)));
+	}
+
+	public Uni<ProductSearchResultDto> searchProducts(String query, Double minPrice, Double maxPrice, boolean inStock,
+			int page, int size) {
+
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Searching products, q = %s, minPrice = %s, maxPrice = %s, inStock = %b", query, minPrice,
+					maxPrice, inStock);
+		}
+		validateLimit(size);
+		if (page < 0) {
+			throw new BadRequestException("Page should be greater than or equal to 0.");
+		}
+		if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+			throw new BadRequestException("minPrice should be less than or equal to maxPrice.");
+		}
+		return Uni.createFrom().item(() -> searchIndex.search(query, minPrice, maxPrice, inStock, page * size, size));
+	}
+
+	private Uni<List<ProductDto>> fetchPage(ProductSort sort, boolean descending, ProductCursor after, int limit) {
+		return productSqlRepository.findPage(sort.getField(), descending, after == null ? null : after.getValue(),
+				after == null ? null : after.getId(), limit);
+	}
+
+	private Uni<List<ProductSummaryDto>> fetchSummaryPage(ProductSort sort, boolean descending, ProductCursor after,
+			int limit) {
+		return productSqlRepository.findSummaryPage(sort.getField(), descending,
+				after == null ? null : after.getValue(), after == null ? null : after.getId(), limit);
 	}
 
 	public Uni<Product> createProduct(ProductDto productDto) {
 
-		Log.infof("Creating a new product");
+		Log.debug("Creating a new product");
 		validateProductDto(productDto);
-		Product product = new Product(productDto.getName(), productDto.getDescription(), productDto.getPrice(),
-				productDto.getQuantity());
+		Product product = toProduct(productDto);
 		
-        Log.infof("Product object created: %s", product);
-		return Panache.withTransaction(product::persist).replaceWith(product);
+        if (Log.isDebugEnabled()) {
+            Log.debugf("Product object created: %s", product);
+        }
+		return dbMetrics.timed("persist", Panache.withTransaction(product::persist)).replaceWith(product)
+				.invoke(() -> productSaved(product, ProductChangeDto.Type.CREATED));
 
 	}
 
-	public Uni<Product> updateProduct(Long id, ProductDto productDto) {
+	/**
+	 * Overwrites a product with a single UPDATE ... RETURNING. With an
+	 * {@code expectedVersion} (from If-Match) the statement only matches that
+	 * version and a miss fails with a precondition error.
+	 */
+	public Uni<Product> updateProduct(Long id, ProductDto productDto, Long expectedVersion) {
 
-        Log.infof("Updating product with ID: %d", id);
+        if (Log.isDebugEnabled()) {
+            Log.debugf("Updating product with ID: %d, expected version: %s", id, expectedVersion);
+        }
 
 		validateId(id);
 		validateProductDto(productDto);
-		Uni<Product> uniProduct = Product.findById(id);
+		return productSqlRepository.update(id, expectedVersion, toProduct(productDto))
+				.onItem().transformToUni(product -> updated(id, expectedVersion, product));
+	}
 
-		return uniProduct.onItem().transformToUni(product -> {
-			if (product == null) {
-				throw new NotFoundException("Product with ID " + id + " not found");
-			}
+	/**
+	 * Writes only the fields present in {@code productDto}. A missing
+	 * description is left unchanged rather than cleared.
+	 */
+	public Uni<Product> patchProduct(Long id, ProductDto productDto, Long expectedVersion) {
+
+        if (Log.isDebugEnabled()) {
+            Log.debugf("Patching product with ID: %d, expected version: %s", id, expectedVersion);
+        }
 
-			product.setName(productDto.getName());
-			product.setDescription(productDto.getDescription());
-			product.setPrice(productDto.getPrice());
-			product.setQuantity(productDto.getQuantity());
+		validateId(id);
+		validatePatch(productDto);
+		return productSqlRepository.patch(id, expectedVersion, toProduct(productDto))
+				.onItem().transformToUni(product -> updated(id, expectedVersion, product));
+	}
 
-			Log.infof("Product with ID %d updated successfully", id);
-			return Panache.withTransaction(product::persist).replaceWith(product);
+	private Uni<Product> updated(Long id, Long expectedVersion, Product product) {
+		if (product != null) {
+			if (Log.isDebugEnabled()) {
+				Log.debugf("Product with ID %d updated successfully", id);
+			}
+			productSaved(product, ProductChangeDto.Type.UPDATED);
+			return Uni.createFrom().item(product);
+		}
+		if (expectedVersion == null) {
+			throw new NotFoundException("Product with ID " + id + " not found");
+		}
+		return productSqlRepository.exists(id).onItem().transform(exists -> {
+			if (!exists) {
+				throw new NotFoundException("Product with ID " + id + " not found");
+			}
+			throw new PreconditionFailedException(
+					"Product with ID " + id + " is no longer at version " + expectedVersion);
 		});
 	}
 
 	public Uni<Void> deleteProduct(Long id) {
 
-        Log.infof("Attempting to delete product with ID: %d", id);
+        if (Log.isDebugEnabled()) {
+            Log.debugf("Attempting to delete product with ID: %d", id);
+        }
 
 		validateId(id);
-		Uni<Product> uniProduct = Product.findById(id);
-		return uniProduct.onItem().transformToUni(product -> {
-			if (product == null) {
-				Log.warnf("Product with ID %d not found", id);
+		return productSqlRepository.delete(id).onItem().transformToUni(deleted -> {
+			if (!deleted) {
+				if (Log.isDebugEnabled()) {
+					Log.debugf("Product with ID %d not found", id);
+				}
 				throw new NotFoundException("Product with ID " + id + " not found");
 			}
-
-			Uni<Void> deleted = Panache.withTransaction(product::delete);
-			Log.infof("Product with ID %d deleted successfully", id);
-			return deleted;
+			if (Log.isDebugEnabled()) {
+				Log.debugf("Product with ID %d deleted successfully", id);
+			}
+			productDeleted(id);
+			return productCache.invalidate(id);
 		});
 	}
 	
+	public Uni<BatchResultDto> createProducts(List<ProductDto> productDtos) {
+
+		validateBatch(productDtos);
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Creating a batch of %d products", productDtos.size());
+		}
+		BatchItemResultDto[] results = new BatchItemResultDto[productDtos.size()];
+		Map<Integer, Product> products = new LinkedHashMap<>();
+
+		for (int i = 0; i < productDtos.size(); i++) {
+			try {
+				validateProductDto(productDtos.get(i));
+				products.put(i, toProduct(productDtos.get(i)));
+			} catch (BadRequestException e) {
+				results[i] = new BatchItemResultDto(i, null, Status.BAD_REQUEST.getStatusCode(), e.getMessage());
+			}
+		}
+
+		if (products.isEmpty()) {
+			return Uni.createFrom().item(toBatchResult(results));
+		}
+		return dbMetrics.timed("persistBatch", Panache.withTransaction(() -> Product.persist(products.values())))
+				.invoke(() -> products.forEach((index, product) -> {
+					results[index] = new BatchItemResultDto(index, product.id, Status.CREATED.getStatusCode(), null);
+					productSaved(product, ProductChangeDto.Type.CREATED);
+				}))
+				.replaceWith(() -> toBatchResult(results));
+	}
+
+	public Uni<BatchResultDto> updateProducts(List<ProductDto> productDtos) {
+
+		validateBatch(productDtos);
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Updating a batch of %d products", productDtos.size());
+		}
+		BatchItemResultDto[] results = new BatchItemResultDto[productDtos.size()];
+		Map<Integer, ProductDto> updates = new LinkedHashMap<>();
+
+		for (int i = 0; i < productDtos.size(); i++) {
+			ProductDto productDto = productDtos.get(i);
+			try {
+				validateProductDto(productDto);
+				validateId(productDto.getId());
+				updates.put(i, productDto);
+			} catch (BadRequestException e) {
+				Long id = productDto == null ? null : productDto.getId();
+				results[i] = new BatchItemResultDto(i, id, Status.BAD_REQUEST.getStatusCode(), e.getMessage());
+			}
+		}
+
+		if (updates.isEmpty()) {
+			return Uni.createFrom().item(toBatchResult(results));
+		}
+		List<Long> ids = updates.values().stream().map(ProductDto::getId).distinct().toList();
+		return dbMetrics.timed("updateBatch", Panache.withTransaction(() -> Product.<Product>list("id in ?1", ids)
+						.invoke(products -> applyBatchUpdates(products, updates, results))))
+				.onFailure(StaleObjectStateException.class)
+				.transform(e -> new ConflictException("Products in the batch were modified concurrently"))
+				.invoke(products -> products.forEach(product -> productSaved(product, ProductChangeDto.Type.UPDATED)))
+				.replaceWith(() -> toBatchResult(results));
+	}
+
+	public Uni<BatchResultDto> deleteProducts(List<ProductDto> productDtos) {
+
+		validateBatch(productDtos);
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Deleting a batch of %d products", productDtos.size());
+		}
+		BatchItemResultDto[] results = new BatchItemResultDto[productDtos.size()];
+		Map<Integer, Long> deletes = new LinkedHashMap<>();
+
+		for (int i = 0; i < productDtos.size(); i++) {
+			Long id = productDtos.get(i) == null ? null : productDtos.get(i).getId();
+			try {
+				validateId(id);
+				deletes.put(i, id);
+			} catch (BadRequestException e) {
+				results[i] = new BatchItemResultDto(i, id, Status.BAD_REQUEST.getStatusCode(), e.getMessage());
+			}
+		}
+
+		if (deletes.isEmpty()) {
+			return Uni.createFrom().item(toBatchResult(results));
+		}
+		return productSqlRepository.deleteAll(deletes.values())
+				.invoke(deleted -> deleted.forEach(this::productDeleted))
+				.call(deleted -> productCache.invalidateIf(deleted::contains))
+				.onItem().transform(deleted -> {
+					deletes.forEach((index, id) -> results[index] = deleted.contains(id)
+							? new BatchItemResultDto(index, id, Status.NO_CONTENT.getStatusCode(), null)
+							: new BatchItemResultDto(index, id, Status.NOT_FOUND.getStatusCode(),
+									"Product with ID " + id + " not found"));
+					return toBatchResult(results);
+				});
+	}
+
 	public Uni<StockDto> checkStockAvailability(Long id, Long count) {
 		
 		validateId(id);
-		Uni<Product> uniProduct = Product.findById(id);
-		
-        return uniProduct  
-            .onItem().transform(product -> {
-                if (product == null) {
-                    throw new NotFoundException("Product with ID " + id + " not found");
-                }
-                boolean isAvailable = product.getQuantity() >= count;
-                return new StockDto(isAvailable);
-            });
+
+		Long known = knownQuantity(id);
+		Uni<Long> quantity = known != null ? Uni.createFrom().item(known)
+				: stockReads.execute(id, () -> productSqlRepository.findQuantities(Set.of(id))
+						.onItem().transform(quantities -> quantities.get(id)));
+		return quantity.onItem().transform(available -> toStockDto(id, available, count));
     }
 
-	private ProductDto toProductDto(Product product) {
+	/**
+	 * Stock of a product from the write-behind view or the product cache, or
+	 * {@code null} when neither holds it. A miss is answered with a
+	 * quantity-only query rather than by loading the whole product.
+	 */
+	Long knownQuantity(Long id) {
+		Long quantity = stockWriteBehind.isEnabled() ? stockWriteBehind.quantity(id) : null;
+		if (quantity != null) {
+			return quantity;
+		}
+		ProductDto product = cachedProduct(id);
+		return product == null ? null : product.getQuantity();
+	}
+
+	private ProductDto cachedProduct(Long id) {
+		CompletableFuture<ProductDto> cached = productCache.as(CaffeineCache.class).getIfPresent(id);
+		return cached == null || cached.isCompletedExceptionally() ? null : cached.getNow(null);
+	}
+
+	StockDto toStockDto(Long id, Long quantity, Long count) {
+		if (quantity == null) {
+			throw new NotFoundException("Product with ID " + id + " not found");
+		}
+		return new StockDto(quantity >= count);
+	}
+
+	public Uni<Map<Long, StockCheckResultDto>> checkStockAvailability(List<StockCheckRequestDto> lines) {
+
+		Map<Long, Long> requested = toRequestedStock(lines);
+		return productSqlRepository.findQuantities(requested.keySet())
+				.onItem().transform(quantities -> toStockCheckResults(requested, quantities));
+	}
+
+	Map<Long, Long> toRequestedStock(List<StockCheckRequestDto> lines) {
+
+		if (lines == null || lines.isEmpty() || lines.size() > maxBatchSize) {
+			throw new BadRequestException("Stock check should contain between 1 and " + maxBatchSize + " lines.");
+		}
+		Map<Long, Long> requested = new LinkedHashMap<>();
+		for (StockCheckRequestDto line : lines) {
+			if (line == null) {
+				throw new BadRequestException("Stock check line is required.");
+			}
+			validateId(line.getId());
+			long count = line.getCount() == null ? 0 : line.getCount();
+			requested.merge(line.getId(), count, Long::sum);
+		}
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Checking stock for %d products", requested.size());
+		}
+		return requested;
+	}
+
+	Map<Long, StockCheckResultDto> toStockCheckResults(Map<Long, Long> requested, Map<Long, Long> quantities) {
+		Map<Long, StockCheckResultDto> results = new LinkedHashMap<>();
+		requested.forEach((id, count) -> {
+			// read once, a flush or eviction may change the view in between
+			Long viewed = stockWriteBehind.isEnabled() ? stockWriteBehind.quantity(id) : null;
+			Long quantity = viewed != null ? viewed : quantities.get(id);
+			results.put(id, new StockCheckResultDto(quantity != null, quantity != null && quantity >= count));
+		});
+		return results;
+	}
+
+	public Uni<StockReservationDto> reserveStock(Long id, Long count) {
+
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Reserving %d units of product with ID: %d", count, id);
+		}
+		validateId(id);
+		validateCount(count);
+		if (stockWriteBehind.isEnabled()) {
+			return stockWriteBehind.reserve(id, count).onItem().transform(remaining -> stockReserved(id, remaining));
+		}
+
+		return productSqlRepository.reserveStock(id, count)
+				.invoke(stock -> stockChanged(id, stock))
+				.call(() -> productCache.invalidate(id))
+				.onItem().transformToUni(stock -> {
+					if (stock != null) {
+						return Uni.createFrom().item(new StockReservationDto(id, stock.quantity()));
+					}
+					return productSqlRepository.exists(id).onItem().transform(exists -> {
+						if (!exists) {
+							throw new NotFoundException("Product with ID " + id + " not found");
+						}
+						throw new ConflictException("Insufficient stock for product with ID " + id);
+					});
+				});
+	}
+
+	public Uni<StockReservationDto> releaseStock(Long id, Long count) {
+
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Releasing %d units of product with ID: %d", count, id);
+		}
+		validateId(id);
+		validateCount(count);
+		if (stockWriteBehind.isEnabled()) {
+			return stockWriteBehind.release(id, count).onItem().transform(remaining -> stockReserved(id, remaining));
+		}
+
+		return productSqlRepository.releaseStock(id, count)
+				.invoke(stock -> stockChanged(id, stock))
+				.call(() -> productCache.invalidate(id))
+				.onItem().transform(stock -> {
+					if (stock == null) {
+						throw new NotFoundException("Product with ID " + id + " not found");
+					}
+					return new StockReservationDto(id, stock.quantity());
+				});
+	}
+
+	void startStockFlusher(@Observes StartupEvent event) {
+
+		if (stockWriteBehind.isEnabled()) {
+			Log.infof("Stock write-behind enabled, flushing every %s", stockFlushInterval);
+			stockFlusher = Multi.createFrom().ticks().every(stockFlushInterval)
+					.onOverflow().drop()
+					.onItem().call(tick -> flushStock().onFailure().recoverWithNull())
+					.subscribe().with(tick -> { });
+		}
+	}
+
+	/**
+	 * Graceful shutdown waits for every pending stock delta to be written.
+	 */
+	void flushStockOnShutdown(@Observes ShutdownEvent event) {
+
+		if (stockFlusher != null) {
+			stockFlusher.cancel();
+		}
+		long deadline = System.nanoTime() + SHUTDOWN_FLUSH_TIMEOUT.toNanos();
+		while (stockWriteBehind.hasPending() && System.nanoTime() < deadline) {
+			try {
+				// a flush that is still running makes flushStock() return at once
+				stockWriteBehind.running().await().atMost(SHUTDOWN_FLUSH_TIMEOUT);
+				flushStock().await().atMost(SHUTDOWN_FLUSH_TIMEOUT);
+			} catch (RuntimeException e) {
+				Log.error("Failed to flush pending stock deltas on shutdown", e);
+				return;
+			}
+		}
+	}
+
+	private Uni<Void> flushStock() {
+		return stockWriteBehind.flush()
+				.invoke(levels -> levels.forEach(this::stockChanged))
+				.call(levels -> levels.isEmpty() ? Uni.createFrom().voidItem()
+						: productCache.invalidateIf(levels::containsKey))
+				.replaceWithVoid();
+	}
+
+	StockReservationDto stockReserved(Long id, Long remaining) {
+		if (stockWriteBehind.shouldFlush()) {
+			flushStock().subscribe().with(ignored -> { }, failure -> { });
+		}
+		return new StockReservationDto(id, remaining);
+	}
+
+	/**
+	 * Brings the local caches, search index and stock view up to a write
+	 * committed by any node, as announced on the coherence channel, and
+	 * publishes it to the change feed under its change number. This node's own
+	 * writes arrive already applied and are only published. The announced
+	 * product is used as it is; a change announced without one is read back.
+	 * Emits whether anything was stale.
+	 */
+	public Uni<Boolean> productChanged(long changeNumber, ProductChangeDto.Type type, Long id, long version,
+			ProductDto product) {
+		if (type == ProductChangeDto.Type.DELETED) {
+			boolean stale = searchIndex.version(id) != null || cachedProduct(id) != null;
+			readRouter.written(id);
+			stockWriteBehind.forget(id);
+			productJsonCache.invalidate(id);
+			searchIndex.remove(id);
+			changeFeed.publishCommitted(changeNumber, type, id, null);
+			return productCache.invalidate(id).replaceWith(stale);
+		}
+		Long indexed = searchIndex.version(id);
+		ProductDto cached = cachedProduct(id);
+		if (indexed != null && indexed >= version && (cached == null || cached.getVersion() >= version)) {
+			Uni<ProductDto> announced = product != null ? Uni.createFrom().item(product)
+					: cached != null && cached.getVersion() == version ? Uni.createFrom().item(cached)
+							: productSqlRepository.findById(id);
+			return announced.invoke(current -> publishCommitted(changeNumber, type, id, current))
+					.replaceWith(false);
+		}
+		readRouter.written(id);
+		productJsonCache.invalidate(id);
+		Uni<ProductDto> stored = product != null ? Uni.createFrom().item(product)
+				: productCache.invalidate(id).chain(() -> productSqlRepository.findById(id));
+		return stored
+				.call(current -> {
+					// only products this node already caches are refreshed in place
+					if (current == null || cached == null) {
+						return productCache.invalidate(id);
+					}
+					if (cached.getVersion() < current.getVersion()) {
+						cacheProduct(current);
+					}
+					return Uni.createFrom().voidItem();
+				})
+				.invoke(current -> {
+					if (current == null) {
+						searchIndex.remove(id);
+						return;
+					}
+					stockWriteBehind.rebase(id, new StockLevel(current.getQuantity(), current.getVersion()));
+					searchIndex.index(current);
+					publishCommitted(changeNumber, type, id, current);
+				})
+				.replaceWith(true);
+	}
+
+	private void publishCommitted(long changeNumber, ProductChangeDto.Type type, Long id, ProductDto product) {
+		if (product == null) {
+			// deleted in the meantime, its own notification follows
+			return;
+		}
+		changeFeed.publishCommitted(changeNumber, type, id, type == ProductChangeDto.Type.STOCK
+				? ProductDto.builder().id(id).quantity(product.getQuantity()).version(product.getVersion()).build()
+				: product);
+	}
+
+	/**
+	 * Drops every cached product and re-reads the search index, for when this
+	 * node may have missed change notifications. Indexed products that are no
+	 * longer stored are removed.
+	 */
+	public Uni<Integer> resyncLocalState() {
+		Set<Long> indexed = searchIndex.ids();
+		Set<Long> seen = ConcurrentHashMap.newKeySet();
+		productJsonCache.invalidateAll();
+		return productCache.invalidateAll()
+				.chain(() -> streamAllProducts(false, null, null)
+						.onItem().invoke(product -> {
+							seen.add(product.getId());
+							stockWriteBehind.rebase(product.getId(),
+									new StockLevel(product.getQuantity(), product.getVersion()));
+							searchIndex.index(product);
+						})
+						.collect().last())
+				.onItem().transform(ignored -> {
+					indexed.stream().filter(id -> !seen.contains(id)).forEach(id -> {
+						stockWriteBehind.forget(id);
+						searchIndex.remove(id);
+					});
+					return seen.size();
+				});
+	}
+
+	void productSaved(Product product, ProductChangeDto.Type type) {
+		readRouter.written(product.id);
+		stockWriteBehind.rebase(product.id, new StockLevel(product.getQuantity(), product.getVersion()));
+		ProductDto productDto = toProductDto(product);
+		cacheProduct(productDto);
+		productJsonCache.invalidate(product.id);
+		searchIndex.index(productDto);
+		changeFeed.publish(type, product.id, productDto);
+	}
+
+	private void cacheProduct(ProductDto productDto) {
+		productCache.as(CaffeineCache.class).put(productDto.getId(), CompletableFuture.completedFuture(productDto));
+	}
+
+	void productDeleted(Long id) {
+		readRouter.written(id);
+		stockWriteBehind.forget(id);
+		productJsonCache.invalidate(id);
+		searchIndex.remove(id);
+		changeFeed.publish(ProductChangeDto.Type.DELETED, id, null);
+	}
+
+	void stockChanged(Long id, StockLevel stock) {
+		if (stock != null) {
+			readRouter.written(id);
+			productJsonCache.invalidate(id);
+			searchIndex.updateStock(id, stock.quantity(), stock.version());
+			changeFeed.publish(ProductChangeDto.Type.STOCK, id,
+					ProductDto.builder().id(id).quantity(stock.quantity()).version(stock.version()).build());
+		}
+	}
+
+	private void applyBatchUpdates(List<Product> products, Map<Integer, ProductDto> updates,
+			BatchItemResultDto[] results) {
+		Map<Long, Product> productsById = products.stream()
+				.collect(Collectors.toMap(product -> product.id, product -> product));
+		updates.forEach((index, productDto) -> {
+			Product product = productsById.get(productDto.getId());
+			if (product == null) {
+				results[index] = new BatchItemResultDto(index, productDto.getId(), Status.NOT_FOUND.getStatusCode(),
+						"Product with ID " + productDto.getId() + " not found");
+			} else {
+				applyProductDto(product, productDto);
+				results[index] = new BatchItemResultDto(index, product.id, Status.OK.getStatusCode(), null);
+			}
+		});
+	}
+
+	private BatchResultDto toBatchResult(BatchItemResultDto[] results) {
+		int failed = (int) Arrays.stream(results).filter(result -> result.getStatus() >= 400).count();
+		return new BatchResultDto(results.length - failed, failed, Arrays.asList(results));
+	}
+
+	Product toProduct(ProductDto productDto) {
+		return new Product(productDto.getName(), productDto.getDescription(), productDto.getPrice(),
+				productDto.getQuantity());
+	}
+
+	private void applyProductDto(Product product, ProductDto productDto) {
+		product.setName(productDto.getName());
+		product.setDescription(productDto.getDescription());
+		product.setPrice(productDto.getPrice());
+		product.setQuantity(productDto.getQuantity());
+	}
+
+	ProductDto toProductDto(Product product) {
         return new ProductDto(
             product.id,
             product.getName(),
             product.getDescription(),
             product.getPrice(),
-            product.getQuantity()
+            product.getQuantity(),
+            product.getVersion()
         );
     }
 
-	private void validateProductDto(ProductDto productDTO) {
+	void validateProductDto(ProductDto productDTO) {
+		if (productDTO == null) {
+			throw new BadRequestException("Product is required.");
+		}
 		StringBuilder errorMessage = new StringBuilder();
 
 		if (productDTO.getName() == null || productDTO.getName().trim().isEmpty()) {
@@ -159,7 +844,75 @@ public class ProductService {
 		}
 	}
 	
-	private void validateId(Long id) {
+	void validatePatch(ProductDto productDto) {
+		if (productDto == null || (productDto.getName() == null && productDto.getDescription() == null
+				&& productDto.getPrice() == null && productDto.getQuantity() == null)) {
+			throw new BadRequestException("Patch should change at least one field.");
+		}
+		StringBuilder errorMessage = new StringBuilder();
+
+		if (productDto.getName() != null
+				&& (productDto.getName().trim().isEmpty() || productDto.getName().length() > 100)) {
+			errorMessage.append("Name should be between 1 and 100 characters.");
+		}
+
+		if (productDto.getDescription() != null && productDto.getDescription().length() > 1000) {
+			errorMessage.append("Description should be between 1 and 1000 characters.");
+		}
+
+		if (productDto.getPrice() != null && productDto.getPrice() < 0) {
+			errorMessage.append("Price should be greater than or equal to 0.");
+		}
+
+		if (productDto.getQuantity() != null && productDto.getQuantity() < 0) {
+			errorMessage.append("Quantity should be greater than or equal to 0.");
+		}
+
+		if (errorMessage.length() > 0) {
+			throw new BadRequestException(errorMessage.toString());
+		}
+	}
+
+	private void validateBatch(List<ProductDto> productDtos) {
+		if (productDtos == null || productDtos.isEmpty() || productDtos.size() > maxBatchSize) {
+			throw new BadRequestException("Batch should contain between 1 and " + maxBatchSize + " products.");
+		}
+	}
+
+	ProductSort resolveSort(String sort, boolean sortByPrice) {
+		if (sort == null || sort.isBlank()) {
+			return sortByPrice ? ProductSort.PRICE : ProductSort.ID;
+		}
+		try {
+			return ProductSort.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Sort should be one of id, price, name, quantity.");
+		}
+	}
+
+	boolean resolveDescending(String order) {
+		if (order == null || order.isBlank() || order.equalsIgnoreCase("asc")) {
+			return false;
+		}
+		if (order.equalsIgnoreCase("desc")) {
+			return true;
+		}
+		throw new BadRequestException("Order should be asc or desc.");
+	}
+
+	void validateLimit(int limit) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Limit should be between 1 and " + MAX_PAGE_SIZE + ".");
+		}
+	}
+
+	void validateCount(Long count) {
+		if (count == null || count <= 0) {
+			throw new BadRequestException("Count should be greater than 0.");
+		}
+	}
+
+	void validateId(Long id) {
 		if (id == null || id <= 0) {
 			throw new BadRequestException("Invalid product ID. ID must be greater than 0");
 		}
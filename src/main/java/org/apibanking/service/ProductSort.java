@@ -0,0 +1,34 @@
+package org.apibanking.service;
+
+import java.util.function.Function;
+
+import org.apibanking.dto.ProductSummary;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Sort keys supported by the product listing. Every key is combined with the
+ * id as a tie-breaker, and each pair is backed by an index on the product table.
+ */
+@Getter
+@AllArgsConstructor
+public enum ProductSort {
+
+	ID("id", product -> null, value -> null),
+	PRICE("price", ProductSummary::getPrice, Double::valueOf),
+	NAME("name", ProductSummary::getName, value -> value),
+	QUANTITY("quantity", ProductSummary::getQuantity, Long::valueOf);
+
+	private final String field;
+	private final Function<ProductSummary, Object> extractor;
+	private final Function<String, Object> parser;
+
+	public Object extract(ProductSummary product) {
+		return extractor.apply(product);
+	}
+
+	public Object parse(String value) {
+		return parser.apply(value);
+	}
+}
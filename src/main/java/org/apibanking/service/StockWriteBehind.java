@@ -0,0 +1,349 @@
+package org.apibanking.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apibanking.dto.ProductDto;
+import org.apibanking.exception.ConflictException;
+import org.apibanking.exception.NotFoundException;
+import org.apibanking.repository.ProductSqlRepository;
+import org.apibanking.repository.StockLevel;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Opt-in write-behind mode for stock reservations
+ * ({@code product.stock.write-behind.enabled}). Reservations and releases are
+ * checked against an in-memory stock view and accumulated as per-product
+ * deltas, which {@link #flush()} writes to PostgreSQL in one statement. Hot
+ * rows then take one UPDATE per flush instead of one per request. Stock reads
+ * overlay the view, so they see reservations that are not flushed yet.
+ * <p>
+ * The view of a product is its last known stored stock plus the delta of a
+ * running flush plus the pending delta. The flush statement never takes the
+ * stored stock below zero, so when other instances sold the same units first
+ * the delta is dropped, counted in {@value #OVERSOLD}, and the view is rebased
+ * on the stored stock. Entries without deltas are dropped after
+ * {@code product.stock.write-behind.idle-timeout}.
+ */
+@ApplicationScoped
+public class StockWriteBehind {
+
+	public static final String OVERSOLD = "product.stock.oversold";
+
+	@ConfigProperty(name = "product.stock.write-behind.enabled", defaultValue = "false")
+	boolean enabled;
+
+	@ConfigProperty(name = "product.stock.write-behind.flush-size", defaultValue = "500")
+	int flushSize;
+
+	@ConfigProperty(name = "product.stock.write-behind.idle-timeout", defaultValue = "60s")
+	Duration idleTimeout;
+
+	@Inject
+	ProductSqlRepository productSqlRepository;
+
+	@Inject
+	MeterRegistry registry;
+
+	private final Map<Long, StockEntry> entries = new ConcurrentHashMap<>();
+	private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean flushing = new AtomicBoolean();
+	private volatile Uni<Void> running = Uni.createFrom().voidItem();
+	private Counter oversold;
+	private volatile long lastEviction = System.nanoTime();
+
+	@PostConstruct
+	void init() {
+		if (enabled) {
+			oversold = Counter.builder(OVERSOLD).baseUnit("units").register(registry);
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean hasPending() {
+		return !dirty.isEmpty() || flushing.get();
+	}
+
+	/**
+	 * True once enough products have unflushed deltas that waiting for the next
+	 * interval would only grow the batch.
+	 */
+	public boolean shouldFlush() {
+		return dirty.size() >= flushSize;
+	}
+
+	public Uni<Long> reserve(Long id, long count) {
+		return entry(id).onItem().transform(entry -> {
+			synchronized (entry) {
+				if (entry.evicted) {
+					return null;
+				}
+				long quantity = entry.quantity();
+				if (quantity < count) {
+					throw new ConflictException("Insufficient stock for product with ID " + id);
+				}
+				record(id, entry, -count);
+				return quantity - count;
+			}
+		}).onItem().ifNull().switchTo(() -> reserve(id, count));
+	}
+
+	public Uni<Long> release(Long id, long count) {
+		return entry(id).onItem().transform(entry -> {
+			synchronized (entry) {
+				if (entry.evicted) {
+					return null;
+				}
+				record(id, entry, count);
+				return entry.quantity();
+			}
+		}).onItem().ifNull().switchTo(() -> release(id, count));
+	}
+
+	/**
+	 * Current quantity of a product including unflushed deltas, or
+	 * {@code null} if the product has no reservations in this instance.
+	 */
+	public Long quantity(Long id) {
+		StockEntry entry = entries.get(id);
+		if (entry == null) {
+			return null;
+		}
+		synchronized (entry) {
+			return entry.evicted ? null : entry.quantity();
+		}
+	}
+
+	public ProductDto overlay(ProductDto product) {
+		Long quantity = quantity(product.getId());
+		return quantity == null || quantity.equals(product.getQuantity()) ? product
+				: product.toBuilder().quantity(quantity).build();
+	}
+
+	/**
+	 * Called with the stored stock of a product after a write, so the view
+	 * follows it; pending deltas are still applied on top by the next flush.
+	 * While a flush of the product is running it is not known whether the stored
+	 * stock already includes that flush, so the rebase is held back until the
+	 * flush returns and then applied only if it is newer than the flush result.
+	 */
+	public void rebase(Long id, StockLevel stored) {
+		StockEntry entry = entries.get(id);
+		if (entry == null) {
+			return;
+		}
+		synchronized (entry) {
+			if (entry.inFlight != 0) {
+				if (entry.deferred == null || stored.version() > entry.deferred.version()) {
+					entry.deferred = stored;
+				}
+			} else if (stored.version() > entry.stored.version()) {
+				entry.stored = stored;
+			}
+		}
+	}
+
+	public void forget(Long id) {
+		StockEntry entry = entries.remove(id);
+		if (entry != null) {
+			synchronized (entry) {
+				entry.evicted = true;
+			}
+		}
+		dirty.remove(id);
+	}
+
+	/**
+	 * Writes all pending deltas in one statement and emits the stored stock of
+	 * every product that was flushed. Deltas of a failed flush are put back and
+	 * retried by the next one; deltas the stored stock cannot cover are dropped
+	 * and the view rebased on the stored stock. Emits an empty map if another
+	 * flush is running, see {@link #running()}.
+	 */
+	public Uni<Map<Long, StockLevel>> flush() {
+		evictIdle();
+		if (dirty.isEmpty() || !flushing.compareAndSet(false, true)) {
+			return Uni.createFrom().item(Map.of());
+		}
+		Map<Long, Long> deltas = new HashMap<>();
+		for (Long id : dirty) {
+			dirty.remove(id);
+			StockEntry entry = entries.get(id);
+			if (entry != null) {
+				synchronized (entry) {
+					if (entry.pending != 0) {
+						deltas.put(id, entry.pending);
+						entry.inFlight = entry.pending;
+						entry.pending = 0;
+					}
+				}
+			}
+		}
+		if (deltas.isEmpty()) {
+			flushing.set(false);
+			return Uni.createFrom().item(Map.of());
+		}
+		if (Log.isDebugEnabled()) {
+			Log.debugf("Flushing stock deltas for %d products", deltas.size());
+		}
+
+		Uni<Map<Long, StockLevel>> flush = productSqlRepository.applyStockDeltas(deltas)
+				.onItem().transformToUni(levels -> {
+					levels.forEach(this::flushed);
+					Set<Long> rejected = new HashSet<>(deltas.keySet());
+					rejected.removeAll(levels.keySet());
+					return rejected.isEmpty() ? Uni.createFrom().item(levels)
+							: reconcile(rejected).replaceWith(levels);
+				})
+				.onFailure().invoke(failure -> {
+					Log.warnf(failure, "Failed to flush stock deltas for %d products, retrying", deltas.size());
+					deltas.keySet().forEach(this::unflushed);
+				})
+				.eventually(() -> flushing.set(false))
+				.memoize().indefinitely();
+		running = flush.replaceWithVoid().onFailure().recoverWithNull();
+		return flush;
+	}
+
+	/**
+	 * Completes once the flush that is running, if any, has ended, whether it
+	 * succeeded or not.
+	 */
+	public Uni<Void> running() {
+		return running;
+	}
+
+	private void flushed(Long id, StockLevel level) {
+		StockEntry entry = entries.get(id);
+		if (entry != null) {
+			synchronized (entry) {
+				entry.inFlight = 0;
+				entry.stored = newest(level, entry.deferred);
+				entry.deferred = null;
+			}
+		}
+	}
+
+	private void unflushed(Long id) {
+		StockEntry entry = entries.get(id);
+		if (entry != null) {
+			synchronized (entry) {
+				record(id, entry, entry.inFlight);
+				entry.inFlight = 0;
+				entry.stored = newest(entry.stored, entry.deferred);
+				entry.deferred = null;
+			}
+		}
+	}
+
+	/**
+	 * Drops the deltas that were not applied, because the product is gone or its
+	 * stored stock could not cover them, and rebases their view on the stored
+	 * stock.
+	 */
+	private Uni<Void> reconcile(Set<Long> ids) {
+		return productSqlRepository.findPrimaryStock(ids).onItem().transform(levels -> {
+			for (Long id : ids) {
+				StockLevel level = levels.get(id);
+				if (level == null) {
+					forget(id);
+					continue;
+				}
+				StockEntry entry = entries.get(id);
+				if (entry == null) {
+					continue;
+				}
+				synchronized (entry) {
+					long dropped = -entry.inFlight;
+					entry.inFlight = 0;
+					entry.stored = newest(level, entry.deferred);
+					entry.deferred = null;
+					Log.warnf("Stock of product %d could not cover %d reserved units, rebased on stored stock %d",
+							id, dropped, entry.stored.quantity());
+					oversold.increment(dropped);
+				}
+			}
+			return null;
+		});
+	}
+
+	private static StockLevel newest(StockLevel level, StockLevel other) {
+		return other != null && other.version() > level.version() ? other : level;
+	}
+
+	private void evictIdle() {
+		long now = System.nanoTime();
+		if (now - lastEviction < idleTimeout.toNanos()) {
+			return;
+		}
+		lastEviction = now;
+		entries.forEach((id, entry) -> {
+			synchronized (entry) {
+				if (entry.pending == 0 && entry.inFlight == 0 && now - entry.lastUsed >= idleTimeout.toNanos()) {
+					entry.evicted = true;
+					entries.remove(id, entry);
+				}
+			}
+		});
+	}
+
+	private Uni<StockEntry> entry(Long id) {
+		StockEntry entry = entries.get(id);
+		if (entry != null) {
+			return Uni.createFrom().item(entry);
+		}
+		return productSqlRepository.findPrimaryStock(Set.of(id)).onItem().transform(levels -> {
+			StockLevel level = levels.get(id);
+			if (level == null) {
+				throw new NotFoundException("Product with ID " + id + " not found");
+			}
+			return entries.computeIfAbsent(id, key -> new StockEntry(level));
+		});
+	}
+
+	/**
+	 * Adds a delta to the pending delta of an entry; callers hold its lock.
+	 */
+	private void record(Long id, StockEntry entry, long delta) {
+		entry.pending += delta;
+		entry.lastUsed = System.nanoTime();
+		dirty.add(id);
+	}
+
+	/**
+	 * Stock view of one product, guarded by its own monitor.
+	 */
+	private static final class StockEntry {
+
+		private StockLevel stored;
+		private StockLevel deferred;
+		private long inFlight;
+		private long pending;
+		private long lastUsed = System.nanoTime();
+		private boolean evicted;
+
+		private StockEntry(StockLevel stored) {
+			this.stored = stored;
+		}
+
+		private long quantity() {
+			return stored.quantity() + inFlight + pending;
+		}
+	}
+}
@@ -0,0 +1,11 @@
+-- Matches the schema previously generated by Hibernate, so existing databases
+-- can be baselined without changes.
+CREATE SEQUENCE IF NOT EXISTS product_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS product (
+    id          BIGINT           NOT NULL PRIMARY KEY,
+    name        VARCHAR(100)     NOT NULL,
+    description VARCHAR(1000),
+    price       DOUBLE PRECISION NOT NULL,
+    quantity    BIGINT           NOT NULL
+);
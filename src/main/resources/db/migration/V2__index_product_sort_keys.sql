@@ -0,0 +1,5 @@
+-- Keyset pagination reads (sort key, id) ranges, so each listing sort key is
+-- indexed together with the id tie-breaker.
+CREATE INDEX IF NOT EXISTS idx_product_price_id ON product (price, id);
+CREATE INDEX IF NOT EXISTS idx_product_name_id ON product (name, id);
+CREATE INDEX IF NOT EXISTS idx_product_quantity_id ON product (quantity, id);
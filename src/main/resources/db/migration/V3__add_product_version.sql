@@ -0,0 +1,2 @@
+-- Optimistic locking column backing ETags and If-Match on PUT /product/{id}.
+ALTER TABLE product ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,18 @@
+-- Cross-node cache coherence: every committed product write is announced on the
+-- product_changed channel as "<I|U|D>:<id>:<version>". pg_notify is
+-- transactional, so listeners only hear about writes that committed, and the
+-- trigger covers every write path (SQL, Hibernate and JDBC) alike.
+CREATE OR REPLACE FUNCTION notify_product_changed() RETURNS trigger AS $$
+BEGIN
+	IF TG_OP = 'DELETE' THEN
+		PERFORM pg_notify('product_changed', 'D:' || OLD.id || ':' || OLD.version);
+		RETURN OLD;
+	END IF;
+	PERFORM pg_notify('product_changed', left(TG_OP, 1) || ':' || NEW.id || ':' || NEW.version);
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS product_changed ON product;
+CREATE TRIGGER product_changed AFTER INSERT OR UPDATE OR DELETE ON product
+	FOR EACH ROW EXECUTE FUNCTION notify_product_changed();
@@ -0,0 +1,49 @@
+-- Change notifications are opt-in. Every NOTIFY serializes its commit on a
+-- global queue lock, so the trigger only notifies while
+-- product_change_notify.enabled is set; nodes running with
+-- product.coherence.enabled=true switch it on once they LISTEN.
+CREATE TABLE IF NOT EXISTS product_change_notify (
+    singleton BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (singleton),
+    enabled   BOOLEAN NOT NULL DEFAULT FALSE
+);
+INSERT INTO product_change_notify (singleton, enabled) VALUES (TRUE, FALSE) ON CONFLICT DO NOTHING;
+
+-- Numbers every announced change, giving all nodes the same change feed ids.
+CREATE SEQUENCE IF NOT EXISTS product_change_seq;
+
+-- The payload is a JSON object {seq, op, id, version, product} where op is
+-- I (insert), U (update), S (update of stock only) or D (delete), and product
+-- is the written row. pg_notify payloads are limited to 8000 bytes, so an
+-- oversized row is announced without it and listeners read it back.
+CREATE OR REPLACE FUNCTION notify_product_changed() RETURNS trigger AS $$
+DECLARE
+	op      TEXT;
+	seq     BIGINT;
+	payload TEXT;
+BEGIN
+	IF NOT coalesce((SELECT enabled FROM product_change_notify), FALSE) THEN
+		RETURN NULL;
+	END IF;
+	seq := nextval('product_change_seq');
+	IF TG_OP = 'DELETE' THEN
+		PERFORM pg_notify('product_changed',
+			json_build_object('seq', seq, 'op', 'D', 'id', OLD.id, 'version', OLD.version)::text);
+		RETURN NULL;
+	END IF;
+	IF TG_OP = 'INSERT' THEN
+		op := 'I';
+	ELSIF NEW.name IS NOT DISTINCT FROM OLD.name AND NEW.description IS NOT DISTINCT FROM OLD.description
+			AND NEW.price IS NOT DISTINCT FROM OLD.price THEN
+		op := 'S';
+	ELSE
+		op := 'U';
+	END IF;
+	payload := json_build_object('seq', seq, 'op', op, 'id', NEW.id, 'version', NEW.version,
+		'product', row_to_json(NEW))::text;
+	IF octet_length(payload) > 7900 THEN
+		payload := json_build_object('seq', seq, 'op', op, 'id', NEW.id, 'version', NEW.version)::text;
+	END IF;
+	PERFORM pg_notify('product_changed', payload);
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,11 @@
+package org.apibanking;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+/**
+ * Runs {@link ProductResourceTest} against the packaged application, which is
+ * the native executable when built with {@code mvn verify -Dnative}.
+ */
+@QuarkusIntegrationTest
+public class ProductResourceIT extends ProductResourceTest {
+}
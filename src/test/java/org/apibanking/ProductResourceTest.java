@@ -2,17 +2,39 @@ package org.apibanking;
 
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.stringContainsInOrder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import org.apibanking.dto.ProductDto;
+import org.apibanking.dto.StockCheckRequestDto;
+import org.apibanking.metrics.DbMetrics;
+import org.apibanking.service.ProductService;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
 import jakarta.json.bind.Jsonb;
 import jakarta.json.bind.JsonbBuilder;
 import jakarta.json.bind.JsonbConfig;
@@ -28,6 +50,14 @@ public class ProductResourceTest {
     private final Double price = 100.5;
     private final Long quantity = 50L;
     private final Long invalidId = 99999L;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    @CacheName(ProductService.PRODUCT_CACHE)
+    Cache productCache;
+
     @Test
     @Order(1)
     public void createProduct_shouldCreate() {
@@ -165,6 +195,120 @@ public class ProductResourceTest {
                 .body("[1].name", equalTo("Product1"));  // Product1 with price 100.5 should be second
     }
     
+    @Test
+    @Order(4)
+    public void getAllProducts_shouldReturnNextPage_whenCursorApplied() {
+
+    	String cursor = given()
+                .when()
+                .get("/product?limit=1")
+                .then()
+                .statusCode(200)
+                .body("$", hasSize(1))
+                .body("[0].name", equalTo("Product1"))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+    	given()
+                .when()
+                .get("/product?limit=1&after=" + cursor)
+                .then()
+                .statusCode(200)
+                .body("$", hasSize(1))
+                .body("[0].name", equalTo("Product2"));
+    }
+
+    @Test
+    @Order(4)
+    public void streamAllProducts_shouldStreamAsNdjson_whenSortByPriceApplied() {
+
+    	given()
+                .when()
+                .get("/product/stream?sortByPrice=true")
+                .then()
+                .statusCode(200)
+                .body(stringContainsInOrder("Product2", "Product1"));
+    }
+
+    @Test
+    @Order(4)
+    public void getAllProducts_shouldReturnSorted_whenSortByNameDescendingApplied() {
+
+    	given()
+                .when()
+                .get("/product?sort=name&order=desc")
+                .then()
+                .statusCode(200)
+                .body("$", hasSize(2))
+                .body("[0].name", equalTo("Product2"))
+                .body("[1].name", equalTo("Product1"));
+    }
+
+    @Test
+    @Order(4)
+    public void searchProducts_shouldMatchPrefixAndApplyPriceRange() {
+
+    	given()
+                .when()
+                .get("/product/search?q=prod")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", equalTo("2"))
+                .body("$", hasSize(2));
+
+    	given()
+                .when()
+                .get("/product/search?q=product&maxPrice=60&inStock=true")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", equalTo("1"))
+                .body("[0].name", equalTo("Product2"));
+    }
+
+    @Test
+    public void searchProducts_shouldGiveBadRequest_whenPriceRangeIsInvalid() {
+
+    	given()
+                .when()
+                .get("/product/search?minPrice=10&maxPrice=5")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("minPrice should be less than or equal to maxPrice."));
+    }
+
+    @Test
+    public void getAllProducts_shouldGiveBadRequest_whenSortIsInvalid() {
+
+    	given()
+                .when()
+                .get("/product?sort=description")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Sort should be one of id, price, name, quantity."));
+    }
+
+    @Test
+    public void getAllProducts_shouldGiveBadRequest_whenCursorIsInvalid() {
+
+    	given()
+                .when()
+                .get("/product?after=not-a-cursor")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Invalid cursor."));
+    }
+
+    @Test
+    public void getAllProducts_shouldGiveBadRequest_whenLimitIsInvalid() {
+
+    	given()
+                .when()
+                .get("/product?limit=0")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Limit should be between 1 and 1000."));
+    }
+
     @Test
     @Order(5)
     public void checkStockAvailability_shouldReturnTrue_whenStockIsSufficient() {
@@ -202,6 +346,79 @@ public class ProductResourceTest {
                 .body("available", is(true));
     }
     
+    @Test
+    @Order(7)
+    public void checkStockAvailability_shouldReportEachLine_whenCheckedInBulk() {
+
+    	List<StockCheckRequestDto> lines = List.of(
+    			new StockCheckRequestDto(1L, 30L),
+    			new StockCheckRequestDto(2L, 101L),
+    			new StockCheckRequestDto(invalidId, 1L),
+    			new StockCheckRequestDto(1L, 20L));
+
+        given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body(jsonb.toJson(lines))
+                .post("/product/check-stock")
+                .then()
+                .statusCode(200)
+                .body("'1'.found", is(true))
+                .body("'1'.available", is(true))
+                .body("'2'.found", is(true))
+                .body("'2'.available", is(false))
+                .body("'" + invalidId + "'.found", is(false))
+                .body("'" + invalidId + "'.available", is(false));
+    }
+
+    @Test
+    @Order(7)
+    public void reserveStock_shouldDecrementAndReleaseStock_whenStockIsSufficient() {
+
+    	given()
+                .when()
+                .post("/product/1/reserve?count=10")
+                .then()
+                .statusCode(200)
+                .body("remaining", equalTo(40));
+
+    	given()
+                .when()
+                .post("/product/1/reserve?count=41")
+                .then()
+                .statusCode(409)
+                .body("message", equalTo("Insufficient stock for product with ID 1"));
+
+    	given()
+                .when()
+                .post("/product/1/release?count=10")
+                .then()
+                .statusCode(200)
+                .body("remaining", equalTo(50));
+    }
+
+    @Test
+    public void reserveStock_shouldReturn404_whenProductNotFound() {
+
+    	given()
+                .when()
+                .post("/product/" + invalidId + "/reserve?count=1")
+                .then()
+                .statusCode(404)
+                .body("message", equalTo("Product with ID " + invalidId + " not found"));
+    }
+
+    @Test
+    public void reserveStock_shouldGiveBadRequest_whenCountIsMissing() {
+
+    	given()
+                .when()
+                .post("/product/1/reserve")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Count should be greater than 0."));
+    }
+
     @Test
     public void checkStockAvailability_shouldReturn404_whenProductNotFound() {
 
@@ -294,6 +511,311 @@ public class ProductResourceTest {
                 .body("message", equalTo("Invalid product ID. ID must be greater than 0"));
     }
     
+    @Test
+    public void getProductById_shouldQueryDatabaseOnce_whenConcurrentReadsMissCache() {
+
+    	ProductDto request = createRequest("Concurrent", description, price, quantity);
+    	Integer id = given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body(jsonb.toJson(request))
+                .post("/product")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+    	productCache.invalidate(id.longValue()).await().indefinitely();
+    	long queriesBefore = findByIdQueries();
+
+    	CompletableFuture.allOf(IntStream.range(0, 20)
+    			.mapToObj(i -> CompletableFuture.runAsync(() -> given()
+    					.when()
+    					.get("/product/" + id)
+    					.then()
+    					.statusCode(200)))
+    			.toArray(CompletableFuture[]::new)).join();
+
+    	assertThat(findByIdQueries() - queriesBefore, is(1L));
+    }
+
+    private long findByIdQueries() {
+    	return registry.find(DbMetrics.DB_OPERATION_TIMER).tag("operation", "findById").timers().stream()
+    			.mapToLong(Timer::count).sum();
+    }
+
+    @Test
+    public void conditionalRequests_shouldUseVersionETags() {
+
+    	ProductDto request = createRequest("Versioned", description, price, quantity);
+    	Integer id = given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body(jsonb.toJson(request))
+                .post("/product")
+                .then()
+                .statusCode(201)
+                .header("ETag", equalTo("\"0\""))
+                .extract().path("id");
+
+    	given()
+                .when()
+                .header("If-None-Match", "\"0\"")
+                .get("/product/" + id)
+                .then()
+                .statusCode(304);
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .header("If-Match", "\"5\"")
+                .body(jsonb.toJson(request))
+                .put("/product/" + id)
+                .then()
+                .statusCode(412);
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .header("If-Match", "\"0\"")
+                .body(jsonb.toJson(request))
+                .put("/product/" + id)
+                .then()
+                .statusCode(200)
+                .header("ETag", equalTo("\"1\""))
+                .body("version", equalTo(1));
+
+    	given()
+                .when()
+                .header("If-None-Match", "\"0\"")
+                .get("/product/" + id)
+                .then()
+                .statusCode(200)
+                .header("ETag", equalTo("\"1\""));
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .header("If-Match", "*")
+                .body(jsonb.toJson(request))
+                .put("/product/" + id)
+                .then()
+                .statusCode(200)
+                .header("ETag", equalTo("\"2\""));
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .header("If-Match", "*")
+                .body(jsonb.toJson(request))
+                .put("/product/999999")
+                .then()
+                .statusCode(412);
+    }
+
+    @Test
+    public void patchProduct_shouldWriteOnlyGivenFields() {
+
+    	Integer id = given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body(jsonb.toJson(createRequest("Patched", description, price, quantity)))
+                .post("/product")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body("{\"price\": 12.5}")
+                .patch("/product/" + id)
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("Patched"))
+                .body("price", equalTo(12.5F))
+                .body("quantity", equalTo(50))
+                .body("version", equalTo(1));
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body("{}")
+                .patch("/product/" + id)
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Patch should change at least one field."));
+    }
+
+    @Test
+    public void getProduct_shouldAnswerCbor_whenAccepted() throws IOException {
+
+    	Integer id = given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body(jsonb.toJson(createRequest("Binary", description, price, quantity)))
+                .post("/product")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+    	byte[] body = given()
+                .when()
+                .header("Accept", "application/cbor")
+                .get("/product/" + id)
+                .then()
+                .statusCode(200)
+                .contentType("application/cbor")
+                .header("Vary", containsString("Accept"))
+                .header("ETag", equalTo("\"0-cbor\""))
+                .extract().asByteArray();
+
+    	ProductDto product = new CBORMapper().readValue(body, ProductDto.class);
+    	assertThat(product.getName(), equalTo("Binary"));
+    	assertThat(product.getPrice(), equalTo(price));
+
+    	given()
+                .when()
+                .header("If-None-Match", "\"0-cbor\"")
+                .get("/product/" + id)
+                .then()
+                .statusCode(200)
+                .contentType("application/json")
+                .header("ETag", equalTo("\"0\""))
+                .body("name", equalTo("Binary"));
+    }
+
+    @Test
+    public void getAllProducts_shouldAnswerCborWithStringReferences_whenAccepted() throws IOException {
+
+    	createProduct(createRequest("Binary list", description, price, quantity), 201, null);
+
+    	byte[] body = given()
+                .when()
+                .header("Accept", "application/cbor")
+                .get("/product?sort=id&order=desc&limit=2")
+                .then()
+                .statusCode(200)
+                .contentType("application/cbor")
+                .header("Vary", containsString("Accept"))
+                .header("ETag", endsWith("-cbor\""))
+                .extract().asByteArray();
+
+    	ProductDto[] products = new CBORMapper().readValue(body, ProductDto[].class);
+    	assertThat(products[0].getName(), equalTo("Binary list"));
+    }
+
+    @Test
+    public void getAllProducts_shouldReturnSummaries_whenFieldsIsSummary() {
+
+    	createProduct(createRequest("Summary", description, price, quantity), 201, null);
+
+    	given()
+                .when()
+                .get("/product?fields=summary&sort=id&order=desc&limit=1")
+                .then()
+                .statusCode(200)
+                .body("$", hasSize(1))
+                .body("[0].name", notNullValue())
+                .body("[0].version", notNullValue())
+                .body("[0]", not(hasKey("description")));
+
+    	given()
+                .when()
+                .get("/product?fields=description")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Fields should be summary when given."));
+    }
+
+    @Test
+    public void changes_shouldGiveBadRequest_whenSinceIsNegative() {
+
+    	given()
+                .when()
+                .get("/product/changes?since=-1")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Since should be greater than or equal to 0."));
+    }
+
+    @Test
+    public void health_shouldReportReady_whenWarmupIsDone() {
+
+    	given()
+                .when()
+                .get("/q/health/ready")
+                .then()
+                .statusCode(200)
+                .body("checks.find { it.name == 'product-cache-warmup' }.status", equalTo("UP"));
+    }
+
+    @Test
+    public void batch_shouldReportPerItemResults() {
+
+    	List<ProductDto> request = List.of(
+    			createRequest("Batch1", description, price, quantity),
+    			createRequest("", description, price, quantity),
+    			createRequest("Batch3", description, price, quantity));
+
+    	List<Integer> ids = given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body(jsonb.toJson(request))
+                .post("/product/batch")
+                .then()
+                .statusCode(200)
+                .body("succeeded", equalTo(2))
+                .body("failed", equalTo(1))
+                .body("results[0].status", equalTo(201))
+                .body("results[1].status", equalTo(400))
+                .body("results[1].message", equalTo("Name is required."))
+                .body("results[2].status", equalTo(201))
+                .extract().path("results.findAll { it.status == 201 }.id");
+
+    	List<ProductDto> deletes = List.of(
+    			ProductDto.builder().id(ids.get(0).longValue()).build(),
+    			ProductDto.builder().id(ids.get(1).longValue()).build(),
+    			ProductDto.builder().id(invalidId).build());
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body(jsonb.toJson(deletes))
+                .delete("/product/batch")
+                .then()
+                .statusCode(200)
+                .body("succeeded", equalTo(2))
+                .body("results[0].status", equalTo(204))
+                .body("results[1].status", equalTo(204))
+                .body("results[2].status", equalTo(404));
+    }
+
+    @Test
+    public void batch_shouldGiveBadRequest_whenEmpty() {
+
+    	given()
+                .when()
+                .header("Content-Type", "application/json")
+                .body("[]")
+                .put("/product/batch")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Batch should contain between 1 and 1000 products."));
+    }
+
+    @Test
+    public void metrics_shouldExposeEndpointDatabaseAndErrorMetrics() {
+
+    	given()
+                .when()
+                .get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("product_resource_request_seconds"))
+                .body(containsString("product_db_operation_seconds"))
+                .body(containsString("product_errors_total"))
+                .body(containsString("product_requests_coalescing_total"));
+    }
+
     private ProductDto createRequest(String name, String desc, Double price, Long quantity) {
     	
     	return ProductDto
@@ -0,0 +1,79 @@
+package org.apibanking.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class GradientLimiterTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+	@Test
+	public void tryAcquire_shouldRefuse_whenLimitIsInFlight() {
+
+		GradientLimiter limiter = new GradientLimiter(2, 1, 10);
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertTrue(limiter.isSaturated());
+
+		limiter.release();
+		assertTrue(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+	}
+
+	@Test
+	public void limit_shouldGrow_whileLatencyIsSteady() {
+
+		GradientLimiter limiter = new GradientLimiter(10, 1, 100);
+
+		runSaturated(limiter, FAST, 200);
+
+		assertTrue(limiter.getLimit() > 50, "limit " + limiter.getLimit());
+	}
+
+	@Test
+	public void limit_shouldShrink_whenLatencyRises() {
+
+		GradientLimiter limiter = new GradientLimiter(10, 1, 100);
+		runSaturated(limiter, FAST, 200);
+		int steady = limiter.getLimit();
+
+		runSaturated(limiter, SLOW, 50);
+
+		assertTrue(limiter.getLimit() < steady / 2, "limit " + limiter.getLimit() + " after " + steady);
+	}
+
+	@Test
+	public void limit_shouldNotGrow_whenMostlyIdle() {
+
+		GradientLimiter limiter = new GradientLimiter(10, 1, 100);
+
+		for (int i = 0; i < 200; i++) {
+			limiter.tryAcquire();
+			limiter.sample(FAST);
+			limiter.release();
+		}
+
+		assertEquals(10, limiter.getLimit());
+	}
+
+	private static void runSaturated(GradientLimiter limiter, long rttNanos, int rounds) {
+		for (int i = 0; i < rounds; i++) {
+			int acquired = 0;
+			while (limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (int j = 0; j < acquired; j++) {
+				limiter.sample(rttNanos);
+				limiter.release();
+			}
+		}
+	}
+}
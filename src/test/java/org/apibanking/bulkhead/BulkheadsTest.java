@@ -0,0 +1,64 @@
+package org.apibanking.bulkhead;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Runs the shipped bulkhead mapping and checks that interactive reads and the
+ * catalog stream wait on their own pools.
+ */
+@QuarkusTest
+@TestProfile(BulkheadsTest.BulkheadsEnabled.class)
+public class BulkheadsTest {
+
+	@Test
+	public void operations_shouldRunOnTheirConfiguredPools() {
+
+		Integer id = given()
+				.when()
+				.header("Content-Type", "application/json")
+				.body("{\"name\":\"Bulkheaded\",\"description\":\"Desc\",\"price\":10.0,\"quantity\":5}")
+				.post("/product")
+				.then()
+				.statusCode(201)
+				.extract().path("id");
+
+		given()
+				.when()
+				.post("/product/" + id + "/reserve?count=1")
+				.then()
+				.statusCode(200)
+				.body("remaining", equalTo(4));
+
+		given()
+				.when()
+				.get("/product/stream")
+				.then()
+				.statusCode(200);
+
+		given()
+				.when()
+				.get("/q/metrics")
+				.then()
+				.statusCode(200)
+				.body(containsString("product_bulkhead_wait_seconds_count{bulkhead=\"interactive\"}"))
+				.body(containsString("product_bulkhead_wait_seconds_count{bulkhead=\"export\"}"));
+	}
+
+	public static class BulkheadsEnabled implements QuarkusTestProfile {
+
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of("product.bulkhead.enabled", "true");
+		}
+	}
+}
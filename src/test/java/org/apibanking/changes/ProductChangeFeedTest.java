@@ -0,0 +1,92 @@
+package org.apibanking.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apibanking.dto.ProductChangeDto;
+import org.apibanking.dto.ProductChangeDto.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+
+public class ProductChangeFeedTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private ProductChangeFeed feed;
+
+	@BeforeEach
+	public void setUp() {
+		feed = new ProductChangeFeed();
+		feed.bufferSize = 4;
+		feed.maxPending = 10;
+		feed.committedOnly = true;
+		feed.init();
+	}
+
+	@Test
+	public void subscribe_shouldResumeAfterChangeNumber_inCommitOrder() {
+
+		// change numbers are taken before commit, so they can arrive out of order
+		feed.publishCommitted(10, Type.CREATED, 1L, null);
+		feed.publishCommitted(12, Type.UPDATED, 1L, null);
+		feed.publishCommitted(11, Type.CREATED, 2L, null);
+
+		AssertSubscriber<ProductChangeDto> subscriber = feed.subscribe(12L)
+				.subscribe().withSubscriber(AssertSubscriber.create(10));
+
+		assertEquals(List.of(11L), sequences(subscriber.awaitItems(1, TIMEOUT).getItems()));
+	}
+
+	@Test
+	public void subscribe_shouldResync_whenChangeNumberIsNotBuffered() {
+
+		for (long number = 1; number <= 6; number++) {
+			feed.publishCommitted(number, Type.STOCK, 1L, null);
+		}
+
+		AssertSubscriber<ProductChangeDto> subscriber = feed.subscribe(1L)
+				.subscribe().withSubscriber(AssertSubscriber.create(10));
+
+		ProductChangeDto resync = subscriber.awaitItems(1, TIMEOUT).getItems().get(0);
+		assertEquals(Type.RESYNC, resync.getType());
+		assertEquals(6, resync.getSequence());
+	}
+
+	@Test
+	public void publish_shouldNotDeliverOnWriterThread() {
+
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		AssertSubscriber<ProductChangeDto> subscriber = feed.subscribe(null)
+				.onItem().invoke(change -> threads.add(Thread.currentThread()))
+				.subscribe().withSubscriber(AssertSubscriber.create(10));
+
+		feed.publishCommitted(1, Type.CREATED, 1L, null);
+		feed.publishCommitted(2, Type.CREATED, 2L, null);
+
+		assertEquals(List.of(1L, 2L), sequences(subscriber.awaitItems(2, TIMEOUT).getItems()));
+		assertFalse(threads.contains(Thread.currentThread()));
+	}
+
+	@Test
+	public void publish_shouldBeIgnored_whenChangesComeFromCoherenceChannel() {
+
+		AssertSubscriber<ProductChangeDto> subscriber = feed.subscribe(null)
+				.subscribe().withSubscriber(AssertSubscriber.create(10));
+
+		feed.publish(Type.CREATED, 1L, null);
+		feed.publishCommitted(7, Type.CREATED, 1L, null);
+
+		assertEquals(List.of(7L), sequences(subscriber.awaitItems(1, TIMEOUT).getItems()));
+	}
+
+	private static List<Long> sequences(List<ProductChangeDto> changes) {
+		return changes.stream().map(ProductChangeDto::getSequence).toList();
+	}
+}
@@ -0,0 +1,72 @@
+package org.apibanking.coherence;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.inject.Inject;
+
+/**
+ * Writes straight to the database, the way another node would, and checks that
+ * the cached product is refreshed by the {@code product_changed} notification.
+ */
+@QuarkusTest
+@TestProfile(ProductCoherenceTest.CoherenceEnabled.class)
+public class ProductCoherenceTest {
+
+	private static final Duration NOTIFICATION_TIMEOUT = Duration.ofSeconds(5);
+
+	@Inject
+	Pool pool;
+
+	@Test
+	public void getProduct_shouldSeeWriteOfAnotherNode() throws InterruptedException {
+
+		Integer id = given()
+				.when()
+				.header("Content-Type", "application/json")
+				.body("{\"name\":\"Coherent\",\"description\":\"Desc\",\"price\":10.0,\"quantity\":5}")
+				.post("/product")
+				.then()
+				.statusCode(201)
+				.extract().path("id");
+
+		assertEquals(5, quantity(id));
+
+		pool.preparedQuery("UPDATE product SET quantity = 42, version = version + 1 WHERE id = $1")
+				.execute(Tuple.of(id.longValue()))
+				.await().atMost(NOTIFICATION_TIMEOUT);
+
+		long deadline = System.nanoTime() + NOTIFICATION_TIMEOUT.toNanos();
+		while (quantity(id) != 42 && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+		assertEquals(42, quantity(id));
+	}
+
+	private int quantity(Integer id) {
+		return given()
+				.when()
+				.get("/product/" + id)
+				.then()
+				.statusCode(200)
+				.extract().path("quantity");
+	}
+
+	public static class CoherenceEnabled implements QuarkusTestProfile {
+
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of("product.coherence.enabled", "true");
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package org.apibanking.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Replays the same request mix as {@link ProductLoadTest} against the blocking
+ * JDBC stack on virtual threads, writing its report next to the reactive one
+ * under the scenario name {@code blocking}. Needs JDK 21 or later.
+ */
+@QuarkusTest
+@Tag("load")
+@TestProfile(BlockingProductLoadTest.BlockingStack.class)
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class BlockingProductLoadTest {
+
+	@TestHTTPResource("/")
+	URI baseUri;
+
+	@Test
+	public void productEndpoints_shouldSustainConfiguredArrivalRate() throws Exception {
+
+		LoadScenario scenario = new LoadScenario("blocking");
+		LoadGenerator.LoadReport report = new LoadGenerator(baseUri, scenario).run();
+
+		report.write(Path.of("target", "load-test"), System.out);
+		assertEquals(0, report.serverErrors(), "requests failed with a server error or timed out");
+	}
+
+	public static class BlockingStack implements QuarkusTestProfile {
+
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			return Map.of("product.service.stack", "blocking");
+		}
+	}
+}
@@ -0,0 +1,296 @@
+package org.apibanking.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apibanking.loadtest.LoadScenario.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate no
+ * matter how long earlier ones take, and latency is measured from the intended
+ * start time so that a stalled server cannot hide its queueing delay
+ * (coordinated omission). Each request has a timeout, and a request that gets
+ * no answer at all is recorded as a failure rather than dropped.
+ */
+public class LoadGenerator {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+	private static final int SEED_BATCH_SIZE = 500;
+	private static final Duration SEED_TIMEOUT = Duration.ofMinutes(1);
+	private static final long DRAIN_GRACE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+	private final URI baseUri;
+	private final LoadScenario scenario;
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final List<Long> seededIds = new ArrayList<>();
+	private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+	private final Operation[] weightedOperations;
+
+	public LoadGenerator(URI baseUri, LoadScenario scenario) {
+		this.baseUri = baseUri;
+		this.scenario = scenario;
+		this.weightedOperations = scenario.getMix().entrySet().stream()
+				.flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+				.toArray(Operation[]::new);
+	}
+
+	public LoadReport run() throws Exception {
+		seed();
+		runPhase(scenario.getWarmup(), null);
+
+		Map<Operation, Recording> recordings = new EnumMap<>(Operation.class);
+		for (Operation operation : scenario.getMix().keySet()) {
+			recordings.put(operation, new Recording());
+		}
+		long elapsedNanos = runPhase(scenario.getDuration(), recordings);
+		return new LoadReport(scenario, recordings, elapsedNanos);
+	}
+
+	private void seed() throws IOException, InterruptedException {
+		for (int created = 0; created < scenario.getSeedProducts(); created += SEED_BATCH_SIZE) {
+			int size = Math.min(SEED_BATCH_SIZE, scenario.getSeedProducts() - created);
+			StringBuilder body = new StringBuilder("[");
+			for (int i = 0; i < size; i++) {
+				body.append(i == 0 ? "" : ",").append(productJson(created + i));
+			}
+			HttpResponse<String> response = client.send(json("/product/batch", "POST", body.append(']').toString(), SEED_TIMEOUT),
+					BodyHandlers.ofString());
+			if (response.statusCode() / 100 != 2) {
+				throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": "
+						+ response.body());
+			}
+			for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+				if (result.path("status").asInt() / 100 != 2) {
+					throw new IllegalStateException("Seed product " + (created + result.path("index").asInt())
+							+ " was rejected with status " + result.path("status").asInt() + ": "
+							+ result.path("message").asText());
+				}
+				seededIds.add(result.path("id").asLong());
+			}
+		}
+		if (seededIds.isEmpty() || seededIds.size() != scenario.getSeedProducts()) {
+			throw new IllegalStateException("Seeding created " + seededIds.size() + " of "
+					+ scenario.getSeedProducts() + " products");
+		}
+	}
+
+	/**
+	 * Runs one phase and returns the length of its arrival window, over which
+	 * throughput is reported. Requests still unanswered when the drain deadline
+	 * passes are recorded as failures at that point.
+	 */
+	private long runPhase(Duration duration, Map<Operation, Recording> recordings) throws InterruptedException {
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / scenario.getRate();
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		Map<Long, PendingRequest> pending = new ConcurrentHashMap<>();
+
+		for (long i = 0;; i++) {
+			long intendedStart = start + i * intervalNanos;
+			if (intendedStart >= end) {
+				break;
+			}
+			long wait;
+			while ((wait = intendedStart - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Operation operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+			long key = i;
+			pending.put(key, new PendingRequest(operation, intendedStart));
+			send(operation).whenComplete((status, failure) -> {
+				// only the first of completion and drain timeout records the request
+				if (pending.remove(key) != null && recordings != null) {
+					recordings.get(operation).record(intendedStart, status, failure);
+				}
+			});
+		}
+
+		long drainDeadline = System.nanoTime() + scenario.getRequestTimeout().toNanos() + DRAIN_GRACE_NANOS;
+		while (!pending.isEmpty() && System.nanoTime() < drainDeadline) {
+			Thread.sleep(10);
+		}
+		for (Long key : pending.keySet()) {
+			PendingRequest request = pending.remove(key);
+			if (request != null && recordings != null) {
+				recordings.get(request.operation()).record(request.intendedStart(), null,
+						new TimeoutException("No response before the drain deadline"));
+			}
+		}
+		return end - start;
+	}
+
+	private record PendingRequest(Operation operation, long intendedStart) {
+	}
+
+	private CompletableFuture<Integer> send(Operation operation) {
+		return switch (operation) {
+		case GET_BY_ID -> status(get("/product/" + randomSeededId()));
+		case LIST -> status(get("/product?limit=100"));
+		case SORTED_LIST -> status(get("/product?sortByPrice=true&limit=100"));
+		case CHECK_STOCK -> status(get("/product/" + randomSeededId() + "/check-stock?count=1"));
+		case UPDATE -> status(json("/product/" + randomSeededId(), "PUT", productJson(randomSeededId()),
+				scenario.getRequestTimeout()));
+		case CREATE -> client.sendAsync(json("/product", "POST", productJson(0), scenario.getRequestTimeout()),
+				BodyHandlers.ofString())
+				.thenApply(response -> {
+					if (response.statusCode() == 201) {
+						createdIds.add(readId(response.body()));
+					}
+					return response.statusCode();
+				});
+		case DELETE -> {
+			Long id = createdIds.poll();
+			yield status(HttpRequest.newBuilder(uri("/product/" + (id != null ? id : Long.MAX_VALUE)))
+					.timeout(scenario.getRequestTimeout())
+					.DELETE()
+					.build());
+		}
+		};
+	}
+
+	private CompletableFuture<Integer> status(HttpRequest request) {
+		return client.sendAsync(request, BodyHandlers.ofByteArray()).thenApply(HttpResponse::statusCode);
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(uri(path)).timeout(scenario.getRequestTimeout()).GET().build();
+	}
+
+	private HttpRequest json(String path, String method, String body, Duration timeout) {
+		return HttpRequest.newBuilder(uri(path))
+				.timeout(timeout)
+				.header("Content-Type", "application/json")
+				.method(method, BodyPublishers.ofString(body))
+				.build();
+	}
+
+	private URI uri(String path) {
+		return baseUri.resolve(path);
+	}
+
+	private long randomSeededId() {
+		return seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size()));
+	}
+
+	private long readId(String body) {
+		try {
+			return objectMapper.readTree(body).path("id").asLong();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String productJson(long seed) {
+		return String.format(Locale.ROOT,
+				"{\"name\":\"Load product %d\",\"description\":\"Generated by the load test\",\"price\":%.2f,\"quantity\":%d}",
+				seed, 1 + seed % 1000 + 0.99, 1_000_000);
+	}
+
+	/**
+	 * Latency histogram and outcome counters for one operation.
+	 */
+	static class Recording {
+
+		final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+		final AtomicLong clientErrors = new AtomicLong();
+		final AtomicLong serverErrors = new AtomicLong();
+
+		void record(long intendedStartNanos, Integer status, Throwable failure) {
+			long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+			histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+			if (failure != null || status >= 500) {
+				serverErrors.incrementAndGet();
+			} else if (status >= 400) {
+				clientErrors.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Result of one measured run; prints a summary table and writes one HdrHistogram
+	 * percentile distribution per operation.
+	 */
+	public static class LoadReport {
+
+		private final LoadScenario scenario;
+		private final Map<Operation, Recording> recordings;
+		private final long elapsedNanos;
+
+		LoadReport(LoadScenario scenario, Map<Operation, Recording> recordings, long elapsedNanos) {
+			this.scenario = scenario;
+			this.recordings = recordings;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public long serverErrors() {
+			return recordings.values().stream().mapToLong(recording -> recording.serverErrors.get()).sum();
+		}
+
+		public void write(Path directory, PrintStream out) throws IOException {
+			Files.createDirectories(directory);
+			Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+			StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+					"scenario=%s rate=%d/s duration=%ds%n%-12s %9s %10s %9s %9s %9s %9s %7s %7s%n", scenario.getName(),
+					scenario.getRate(), scenario.getDuration().toSeconds(), "operation", "count", "req/s", "p50 ms",
+					"p99 ms", "p99.9 ms", "max ms", "4xx", "5xx"));
+			for (Map.Entry<Operation, Recording> entry : recordings.entrySet()) {
+				Recording recording = entry.getValue();
+				total.add(recording.histogram);
+				summary.append(line(entry.getKey().name(), recording.histogram, recording.clientErrors.get(),
+						recording.serverErrors.get()));
+				writeDistribution(directory.resolve(scenario.getName() + "-" + entry.getKey().name().toLowerCase(Locale.ROOT)
+						+ ".hgrm"), recording.histogram);
+			}
+			summary.append(line("ALL", total, recordings.values().stream().mapToLong(r -> r.clientErrors.get()).sum(),
+					serverErrors()));
+			writeDistribution(directory.resolve(scenario.getName() + "-all.hgrm"), total);
+			Files.writeString(directory.resolve(scenario.getName() + "-summary.txt"), summary);
+			out.print(summary);
+		}
+
+		private String line(String name, Histogram histogram, long clientErrors, long serverErrors) {
+			double seconds = elapsedNanos / 1e9;
+			return String.format(Locale.ROOT, "%-12s %9d %10.1f %9.3f %9.3f %9.3f %9.3f %7d %7d%n", name,
+					histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+					histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+					histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0, clientErrors,
+					serverErrors);
+		}
+
+		private void writeDistribution(Path file, Histogram histogram) throws IOException {
+			try (PrintStream stream = new PrintStream(Files.newOutputStream(file))) {
+				histogram.outputPercentileDistribution(stream, 1000.0);
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package org.apibanking.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Load test settings, read from system properties so runs can be repeated with
+ * the same arrival rate and request mix, e.g.
+ * {@code -Dload.rate=500 -Dload.duration=60 -Dload.mix=GET_BY_ID=60,LIST=10,CHECK_STOCK=30}.
+ */
+@Getter
+public class LoadScenario {
+
+	private static final String DEFAULT_MIX = "GET_BY_ID=40,LIST=10,SORTED_LIST=5,CHECK_STOCK=30,CREATE=5,UPDATE=5,DELETE=5";
+
+	private final String name;
+	private final int rate;
+	private final Duration warmup;
+	private final Duration duration;
+	private final Duration requestTimeout;
+	private final int seedProducts;
+	private final Map<Operation, Integer> mix;
+
+	public LoadScenario(String defaultName) {
+		this.name = System.getProperty("load.name", defaultName);
+		this.rate = Integer.getInteger("load.rate", 200);
+		this.warmup = Duration.ofSeconds(Long.getLong("load.warmup", 5L));
+		this.duration = Duration.ofSeconds(Long.getLong("load.duration", 30L));
+		this.requestTimeout = Duration.ofSeconds(Long.getLong("load.request-timeout", 10L));
+		this.seedProducts = Integer.getInteger("load.seed-products", 1000);
+		this.mix = parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+	}
+
+	private static Map<Operation, Integer> parseMix(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.trim().split("=");
+			weights.put(Operation.valueOf(parts[0].trim()), Integer.valueOf(parts[1].trim()));
+		}
+		return weights;
+	}
+
+	public enum Operation {
+		GET_BY_ID, LIST, SORTED_LIST, CHECK_STOCK, CREATE, UPDATE, DELETE
+	}
+}
@@ -0,0 +1,34 @@
+package org.apibanking.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Replays the configured request mix against a test instance of the service.
+ * Excluded from the default build; run with {@code mvn test -Pload-test}.
+ */
+@QuarkusTest
+@Tag("load")
+public class ProductLoadTest {
+
+	@TestHTTPResource("/")
+	URI baseUri;
+
+	@Test
+	public void productEndpoints_shouldSustainConfiguredArrivalRate() throws Exception {
+
+		LoadScenario scenario = new LoadScenario("reactive");
+		LoadGenerator.LoadReport report = new LoadGenerator(baseUri, scenario).run();
+
+		report.write(Path.of("target", "load-test"), System.out);
+		assertEquals(0, report.serverErrors(), "requests failed with a server error or timed out");
+	}
+}
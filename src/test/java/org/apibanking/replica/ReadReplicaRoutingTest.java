@@ -0,0 +1,103 @@
+package org.apibanking.replica;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Runs against two independent local PostgreSQL instances, a primary and a
+ * stand-in replica that never receives the primary's rows, so every answer
+ * shows which of the two served it. Excluded from the default build; run with
+ * {@code mvn test -Preplica-test [-Dreplica.primary=localhost:5432/my_db_test
+ * -Dreplica.replica=localhost:5433/my_db_test]}.
+ */
+@QuarkusTest
+@Tag("replica")
+@TestProfile(ReadReplicaRoutingTest.TwoInstances.class)
+public class ReadReplicaRoutingTest {
+
+	private static final long READ_YOUR_WRITES_WINDOW_MILLIS = 500;
+
+	@Test
+	public void reads_shouldStayOnPrimary_untilReadYourWritesWindowExpires() throws InterruptedException {
+
+		Integer id = given()
+				.when()
+				.header("Content-Type", "application/json")
+				.body("{\"name\":\"Replicated\",\"description\":\"Desc\",\"price\":10.0,\"quantity\":5}")
+				.post("/product")
+				.then()
+				.statusCode(201)
+				.extract().path("id");
+
+		// invalidates the product cache, so the next read goes to a datasource
+		given()
+				.when()
+				.post("/product/" + id + "/reserve?count=1")
+				.then()
+				.statusCode(200);
+
+		given()
+				.when()
+				.get("/product/" + id)
+				.then()
+				.statusCode(200)
+				.body("quantity", equalTo(4));
+
+		given()
+				.when()
+				.get("/product?limit=1000")
+				.then()
+				.statusCode(200)
+				.body("id", not(hasItem(id)));
+
+		Thread.sleep(3 * READ_YOUR_WRITES_WINDOW_MILLIS);
+
+		given()
+				.when()
+				.get("/product/" + id)
+				.then()
+				.statusCode(404);
+
+		given()
+				.when()
+				.delete("/product/" + id)
+				.then()
+				.statusCode(204);
+	}
+
+	public static class TwoInstances implements QuarkusTestProfile {
+
+		@Override
+		public Map<String, String> getConfigOverrides() {
+			String primary = System.getProperty("replica.primary", "localhost:5432/my_db_test");
+			String replica = System.getProperty("replica.replica", "localhost:5433/my_db_test");
+			return Map.ofEntries(
+					Map.entry("quarkus.datasource.devservices.enabled", "false"),
+					Map.entry("quarkus.datasource.reactive.url", "postgresql://" + primary),
+					Map.entry("quarkus.datasource.jdbc.url", "jdbc:postgresql://" + primary),
+					Map.entry("quarkus.datasource.\"replica\".db-kind", "postgresql"),
+					Map.entry("quarkus.datasource.\"replica\".username", "postgres"),
+					Map.entry("quarkus.datasource.\"replica\".password", "root"),
+					Map.entry("quarkus.datasource.\"replica\".reactive.url", "postgresql://" + replica),
+					Map.entry("quarkus.datasource.\"replica\".jdbc.url", "jdbc:postgresql://" + replica),
+					Map.entry("quarkus.flyway.\"replica\".migrate-at-start", "true"),
+					Map.entry("quarkus.flyway.\"replica\".baseline-on-migrate", "true"),
+					Map.entry("quarkus.flyway.\"replica\".baseline-version", "0"),
+					Map.entry("quarkus.cache.caffeine.\"product\".expire-after-write", "100ms"),
+					Map.entry("quarkus.cache.caffeine.\"product-recent-writes\".expire-after-write",
+							READ_YOUR_WRITES_WINDOW_MILLIS + "ms"),
+					Map.entry("product.replica.enabled", "true"));
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package org.apibanking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apibanking.bulkhead.Bulkhead;
+import org.apibanking.exception.OverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CaffeineCache;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.SqlClient;
+import jakarta.enterprise.inject.Instance;
+
+public class ReadReplicaRouterTest {
+
+	private static final Duration SLOW_REPLICA = Duration.ofSeconds(5);
+
+	private final Pool replica = mock(Pool.class);
+	private final SqlClient primaryClient = mock(SqlClient.class);
+	private final Bulkhead primary = mock(Bulkhead.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private ReadReplicaRouter router;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		Instance<Pool> replicas = mock(Instance.class);
+		when(replicas.isResolvable()).thenReturn(true);
+		when(replicas.get()).thenReturn(replica);
+		Cache recentWrites = mock(Cache.class);
+		when(recentWrites.as(CaffeineCache.class)).thenReturn(mock(CaffeineCache.class));
+		when(primary.execute(any())).thenAnswer(
+				invocation -> invocation.<Function<SqlClient, Uni<String>>>getArgument(0).apply(primaryClient));
+
+		router = new ReadReplicaRouter();
+		router.enabled = true;
+		router.hedgeEnabled = true;
+		router.hedgeMinDelay = Duration.ofMillis(20);
+		router.recentWriteWindow = Duration.ofSeconds(2);
+		router.replicas = replicas;
+		router.recentWrites = recentWrites;
+		router.registry = registry;
+		router.init();
+	}
+
+	@Test
+	public void read_shouldHedgeOnPrimary_whenReplicaIsSlow() {
+
+		long started = System.nanoTime();
+		String answer = router.read(primary, Set.of(1L), this::query).await().atMost(SLOW_REPLICA);
+
+		assertEquals("primary", answer);
+		assertTrue(System.nanoTime() - started < SLOW_REPLICA.toNanos() / 2, "hedge did not cut the replica wait");
+		assertEquals(1, routed("hedged"));
+		assertEquals(0, routed("fallback"));
+	}
+
+	@Test
+	public void read_shouldNotHedge_whenReplicaAnswersInTime() {
+
+		String answer = router.read(primary, Set.of(1L), client -> Uni.createFrom().item("replica"))
+				.await().atMost(SLOW_REPLICA);
+
+		assertEquals("replica", answer);
+		assertEquals(0, routed("hedged"));
+	}
+
+	@Test
+	public void read_shouldAnswerFromReplica_whenHedgeFails() {
+
+		String answer = router.read(primary, Set.of(1L), client -> client == replica
+				? Uni.createFrom().item("replica").onItem().delayIt().by(Duration.ofMillis(200))
+				: Uni.createFrom().failure(new OverloadedException("Primary bulkhead is full", 1)))
+				.await().atMost(SLOW_REPLICA);
+
+		assertEquals("replica", answer);
+		assertEquals(1, routed("hedged"));
+	}
+
+	@Test
+	public void read_shouldFail_whenReplicaAndHedgeFail() {
+
+		Uni<String> read = router.read(primary, Set.of(1L), client -> client == replica
+				? Uni.createFrom().<String>failure(new IllegalStateException("replica down"))
+						.onSubscription().call(() -> Uni.createFrom().voidItem().onItem().delayIt()
+								.by(Duration.ofMillis(200)))
+				: Uni.createFrom().failure(new OverloadedException("Primary bulkhead is full", 1)));
+
+		assertThrows(IllegalStateException.class, () -> read.await().atMost(SLOW_REPLICA));
+		assertEquals(1, routed("hedged"));
+		assertEquals(0, routed("fallback"));
+	}
+
+	@Test
+	public void read_shouldKeepListingsOnPrimary_afterWrite() {
+
+		router.hedgeEnabled = false;
+		router.written(1L);
+
+		String answer = router.read(primary, this::query).await().atMost(SLOW_REPLICA);
+
+		assertEquals("primary", answer);
+		assertEquals(1, routed("primary"));
+		assertEquals(0, routed("replica"));
+	}
+
+	private Uni<String> query(SqlClient client) {
+		return client == replica
+				? Uni.createFrom().item("replica").onItem().delayIt().by(SLOW_REPLICA.multipliedBy(2))
+				: Uni.createFrom().item("primary");
+	}
+
+	private double routed(String route) {
+		return registry.counter(ReadReplicaRouter.ROUTED_READS, "route", route).count();
+	}
+}
@@ -0,0 +1,52 @@
+package org.apibanking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+public class InFlightRequestsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final InFlightRequests<Long, Long> requests = new InFlightRequests<>("checkStockAvailability", registry);
+
+	@Test
+	public void execute_shouldShareOneRead_whileItIsInFlight() {
+
+		AtomicInteger reads = new AtomicInteger();
+		CompletableFuture<Long> result = new CompletableFuture<>();
+		List<CompletableFuture<Long>> callers = IntStream.range(0, 10)
+				.mapToObj(i -> requests.execute(1L, () -> {
+					reads.incrementAndGet();
+					return Uni.createFrom().completionStage(result);
+				}).subscribeAsCompletionStage())
+				.toList();
+
+		result.complete(5L);
+
+		callers.forEach(caller -> assertEquals(5L, caller.join()));
+		assertEquals(1, reads.get());
+		assertEquals(9, registry.counter(InFlightRequests.COALESCING_COUNTER, "operation", "checkStockAvailability",
+				"outcome", "joined").count());
+	}
+
+	@Test
+	public void execute_shouldReadAgain_onceReadCompleted() {
+
+		AtomicInteger reads = new AtomicInteger();
+
+		requests.execute(1L, () -> Uni.createFrom().item(reads.incrementAndGet()).replaceWith(1L))
+				.await().indefinitely();
+		requests.execute(1L, () -> Uni.createFrom().item(reads.incrementAndGet()).replaceWith(2L))
+				.await().indefinitely();
+
+		assertEquals(2, reads.get());
+	}
+}
@@ -0,0 +1,129 @@
+package org.apibanking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apibanking.repository.ProductSqlRepository;
+import org.apibanking.repository.StockLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+public class StockWriteBehindTest {
+
+	private static final Long ID = 1L;
+
+	private final ProductSqlRepository repository = mock(ProductSqlRepository.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private StockWriteBehind writeBehind;
+
+	@BeforeEach
+	public void setUp() {
+		writeBehind = new StockWriteBehind();
+		writeBehind.enabled = true;
+		writeBehind.flushSize = 500;
+		writeBehind.idleTimeout = Duration.ofMinutes(1);
+		writeBehind.productSqlRepository = repository;
+		writeBehind.registry = registry;
+		writeBehind.init();
+		stored(10, 1);
+	}
+
+	@Test
+	public void flush_shouldDropDeltaAndRebase_whenStoredStockCannotCoverIt() {
+
+		assertEquals(0, writeBehind.reserve(ID, 10).await().indefinitely());
+		// another instance sold 8 units in the meantime
+		when(repository.applyStockDeltas(any())).thenReturn(Uni.createFrom().item(Map.of()));
+		stored(2, 3);
+
+		assertEquals(Map.of(), writeBehind.flush().await().indefinitely());
+
+		assertEquals(2, writeBehind.quantity(ID));
+		assertEquals(10, registry.counter(StockWriteBehind.OVERSOLD).count());
+	}
+
+	@Test
+	public void rebase_shouldWaitForRunningFlush_whenStoredStockMayIncludeIt() {
+
+		writeBehind.reserve(ID, 2).await().indefinitely();
+		CompletableFuture<Map<Long, StockLevel>> flushed = new CompletableFuture<>();
+		when(repository.applyStockDeltas(any())).thenReturn(Uni.createFrom().completionStage(flushed));
+		CompletableFuture<Map<Long, StockLevel>> flush = writeBehind.flush().subscribeAsCompletionStage();
+
+		// read after the flush committed, so it already includes the reserved units
+		writeBehind.rebase(ID, new StockLevel(8, 2));
+		assertEquals(8, writeBehind.quantity(ID));
+
+		flushed.complete(Map.of(ID, new StockLevel(8, 2)));
+		flush.join();
+		assertEquals(8, writeBehind.quantity(ID));
+	}
+
+	@Test
+	public void rebase_shouldWin_whenNewerThanFlushResult() {
+
+		writeBehind.reserve(ID, 2).await().indefinitely();
+		CompletableFuture<Map<Long, StockLevel>> flushed = new CompletableFuture<>();
+		when(repository.applyStockDeltas(any())).thenReturn(Uni.createFrom().completionStage(flushed));
+		CompletableFuture<Map<Long, StockLevel>> flush = writeBehind.flush().subscribeAsCompletionStage();
+
+		writeBehind.reserve(ID, 1).await().indefinitely();
+		// a full update stored after the flush
+		writeBehind.rebase(ID, new StockLevel(20, 3));
+		flushed.complete(Map.of(ID, new StockLevel(8, 2)));
+		flush.join();
+
+		assertEquals(19, writeBehind.quantity(ID));
+	}
+
+	@Test
+	public void running_shouldCompleteOnceRunningFlushEnds() {
+
+		writeBehind.reserve(ID, 2).await().indefinitely();
+		CompletableFuture<Map<Long, StockLevel>> flushed = new CompletableFuture<>();
+		when(repository.applyStockDeltas(any())).thenReturn(Uni.createFrom().completionStage(flushed));
+		CompletableFuture<Map<Long, StockLevel>> flush = writeBehind.flush().subscribeAsCompletionStage();
+		writeBehind.reserve(ID, 1).await().indefinitely();
+
+		// a second flush backs off while the first is running
+		assertEquals(Map.of(), writeBehind.flush().await().indefinitely());
+		CompletableFuture<Void> running = writeBehind.running().subscribeAsCompletionStage();
+		assertFalse(running.isDone());
+
+		flushed.complete(Map.of(ID, new StockLevel(8, 2)));
+		running.join();
+		flush.join();
+		assertTrue(writeBehind.hasPending());
+	}
+
+	@Test
+	public void flush_shouldEvictIdleEntries_withoutDeltas() {
+
+		writeBehind.idleTimeout = Duration.ZERO;
+		writeBehind.reserve(ID, 2).await().indefinitely();
+		when(repository.applyStockDeltas(any())).thenReturn(Uni.createFrom().item(Map.of(ID, new StockLevel(8, 2))));
+		writeBehind.flush().await().indefinitely();
+		assertEquals(8, writeBehind.quantity(ID));
+
+		writeBehind.flush().await().indefinitely();
+
+		assertNull(writeBehind.quantity(ID));
+	}
+
+	private void stored(long quantity, long version) {
+		when(repository.findPrimaryStock(any()))
+				.thenReturn(Uni.createFrom().item(Map.of(ID, new StockLevel(quantity, version))));
+	}
+}